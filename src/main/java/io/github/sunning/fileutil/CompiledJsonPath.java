@@ -0,0 +1,137 @@
+package io.github.sunning.fileutil;
+
+import com.alibaba.fastjson.JSONPath;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 预编译的json路径，同时保存fastjson的JSONPath和按"."切分好的key数组
+ * FastJsonUtil的put、remove、replace、replaceNew、eval等方法会通过compile从有界的缓存中获取，
+ * 调用频繁的代码也可以自己持有CompiledJsonPath，直接传给FastJsonUtil的重载方法，不再重复解析路径
+ **/
+
+public final class CompiledJsonPath {
+
+    /**
+     * 缓存的路径数，超过后按CLOCK算法每次淘汰一个路径：指针依次扫过缓存的路径，
+     * 跳过上次扫过之后被使用过的路径并清除其标记，淘汰遇到的第一个没有被使用过的路径
+     */
+    static final int MAX_CACHE_SIZE = 1024;
+
+    /** 读取不加锁，只有未命中时的写入和淘汰需要加锁 */
+    private static final ConcurrentMap<String, CompiledJsonPath> CACHE = new ConcurrentHashMap<>();
+
+    private static final Object EVICTION_LOCK = new Object();
+
+    /** 与CACHE中的路径一一对应的环，只在EVICTION_LOCK内访问 */
+    private static final CompiledJsonPath[] CLOCK = new CompiledJsonPath[MAX_CACHE_SIZE];
+
+    private static int hand;
+
+    private final String path;
+    private final String[] keys;
+    private final JSONPath jsonPath;
+    /** 指针上次扫过之后是否被使用过，多线程下偶尔丢失标记只会导致路径被重新编译 */
+    private boolean used;
+
+    private CompiledJsonPath(String path) {
+        this.path = path;
+        this.keys = path.contains(".") ? path.split("\\.") : new String[]{path};
+        this.jsonPath = new JSONPath(path);
+    }
+
+    /**
+     * 获取编译好的路径，优先从缓存中获取
+     * @param path json路径，如$.data.name
+     * @return CompiledJsonPath
+     */
+    public static CompiledJsonPath compile(String path) {
+        if (StringUtils.isEmpty(path)) {
+            throw new IllegalArgumentException("json path must not be empty");
+        }
+        CompiledJsonPath compiled = CACHE.get(path);
+        if (compiled != null) {
+            if (! compiled.used) {
+                compiled.used = true;
+            }
+            return compiled;
+        }
+        compiled = new CompiledJsonPath(path);
+        synchronized (EVICTION_LOCK) {
+            CompiledJsonPath previous = CACHE.get(path);
+            if (previous != null) {
+                return previous;
+            }
+            int slot = nextSlot();
+            if (CLOCK[slot] != null) {
+                CACHE.remove(CLOCK[slot].path);
+            }
+            CLOCK[slot] = compiled;
+            CACHE.put(path, compiled);
+            return compiled;
+        }
+    }
+
+    /**
+     * 移动指针找到可以放入新路径的位置：空位，或者指针上次扫过之后没有被使用过的路径
+     * 所有路径都被使用过时，指针转一圈清除所有标记后回到起点，淘汰起点的路径
+     */
+    private static int nextSlot() {
+        while (true) {
+            CompiledJsonPath current = CLOCK[hand];
+            int slot = hand;
+            hand = (hand + 1) % MAX_CACHE_SIZE;
+            if (current == null || ! current.used) {
+                return slot;
+            }
+            current.used = false;
+        }
+    }
+
+    static void clearCache() {
+        synchronized (EVICTION_LOCK) {
+            CACHE.clear();
+            Arrays.fill(CLOCK, null);
+            hand = 0;
+        }
+    }
+
+    static int cacheSize() {
+        return CACHE.size();
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * 按"."切分好的key，第一个key可能是"$"，调用方不能修改该数组
+     */
+    String[] keys() {
+        return keys;
+    }
+
+    /**
+     * 路径的最后一个key，即要修改的属性名
+     */
+    String lastKey() {
+        return keys[keys.length - 1];
+    }
+
+    /**
+     * 根据路径从已经解析好的对象中取出结果
+     * @param root JSONObject、JSONArray或者JavaBean
+     * @return 路径对应的值，不存在时返回null
+     */
+    public Object eval(Object root) {
+        return jsonPath.eval(root);
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+}
@@ -0,0 +1,128 @@
+package io.github.sunning.fileutil;
+
+import java.math.BigDecimal;
+
+/**
+ * csv分组聚合的聚合函数，配合CsvExternalSorter.aggregate使用
+ * sum的结果用BigDecimal计算，min、max在两个值都是数字时按数值比较，否则按字符串比较
+ **/
+
+public final class CsvAggregation {
+
+    private enum Type {
+        COUNT, SUM, MIN, MAX
+    }
+
+    private final Type type;
+    private final int column;
+
+    private CsvAggregation(Type type, int column) {
+        if (type != Type.COUNT && column < 0) {
+            throw new IllegalArgumentException("column index must not be negative: " + column);
+        }
+        this.type = type;
+        this.column = column;
+    }
+
+    /**
+     * 每组的行数
+     */
+    public static CsvAggregation count() {
+        return new CsvAggregation(Type.COUNT, -1);
+    }
+
+    /**
+     * 每组指定列的和，空值会被忽略
+     */
+    public static CsvAggregation sum(int column) {
+        return new CsvAggregation(Type.SUM, column);
+    }
+
+    /**
+     * 每组指定列的最小值，空值会被忽略
+     */
+    public static CsvAggregation min(int column) {
+        return new CsvAggregation(Type.MIN, column);
+    }
+
+    /**
+     * 每组指定列的最大值，空值会被忽略
+     */
+    public static CsvAggregation max(int column) {
+        return new CsvAggregation(Type.MAX, column);
+    }
+
+    /**
+     * 结果列的标题，如count、sum(amount)
+     */
+    String title(String[] header) {
+        if (type == Type.COUNT) {
+            return "count";
+        }
+        String name = header != null && column < header.length ? header[column] : String.valueOf(column);
+        return type.name().toLowerCase() + "(" + name + ")";
+    }
+
+    Accumulator newAccumulator() {
+        return new Accumulator();
+    }
+
+    /**
+     * 一个分组的聚合状态
+     */
+    final class Accumulator {
+        private long count;
+        private BigDecimal sum = BigDecimal.ZERO;
+        private String extreme;
+        private BigDecimal extremeNumber;
+
+        void add(String[] row) {
+            if (type == Type.COUNT) {
+                count++;
+                return;
+            }
+            String value = column < row.length ? row[column] : null;
+            if (value == null || value.isEmpty()) {
+                return;
+            }
+            if (type == Type.SUM) {
+                try {
+                    sum = sum.add(new BigDecimal(value));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("can not sum non-numeric csv value: " + value, e);
+                }
+                return;
+            }
+            BigDecimal number = toNumber(value);
+            if (extreme == null) {
+                extreme = value;
+                extremeNumber = number;
+                return;
+            }
+            int cmp = number != null && extremeNumber != null ? number.compareTo(extremeNumber) : value.compareTo(extreme);
+            if (type == Type.MIN ? cmp < 0 : cmp > 0) {
+                extreme = value;
+                extremeNumber = number;
+            }
+        }
+
+        String result() {
+            switch (type) {
+                case COUNT:
+                    return String.valueOf(count);
+                case SUM:
+                    return sum.toPlainString();
+                default:
+                    return extreme == null ? "" : extreme;
+            }
+        }
+
+        private BigDecimal toNumber(String value) {
+            try {
+                return new BigDecimal(value);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
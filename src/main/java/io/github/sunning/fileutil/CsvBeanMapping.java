@@ -0,0 +1,299 @@
+package io.github.sunning.fileutil;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.nio.CharBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * JavaBean与csv列之间的映射计划，每个类只通过反射分析一次并缓存
+ * 属性通过MethodHandle赋值，基本类型直接从字段的字符中解析，不经过装箱和String
+ **/
+
+final class CsvBeanMapping<T> {
+
+    private static final Map<Class<?>, CsvBeanMapping<?>> cachedMapping = new ConcurrentHashMap<>();
+
+    private static final ZoneId DEFAULT_ZONE = ZoneId.of("Asia/Shanghai");
+
+    /** 默认的日期格式，时间部分可以省略 */
+    private static final String DEFAULT_DATE_FORMAT = "yyyy-MM-dd[ HH:mm:ss]";
+
+    private final Class<T> clazz;
+    private final MethodHandle constructor;
+    private final List<Property> properties;
+
+    private CsvBeanMapping(Class<T> clazz) {
+        this.clazz = clazz;
+        this.constructor = findConstructor(clazz);
+        this.properties = findProperties(clazz);
+        if (properties.isEmpty()) {
+            throw new IllegalArgumentException("no csv property found in " + clazz.getName());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> CsvBeanMapping<T> of(Class<T> clazz) {
+        return (CsvBeanMapping<T>) cachedMapping.computeIfAbsent(clazz, CsvBeanMapping::new);
+    }
+
+    /**
+     * 逐行把csv记录转换成JavaBean
+     * @param tokenizer 未设置列投影的解析器
+     * @param withHeader 第一行是否为列标题，为true时按列标题匹配属性
+     * @param consumer 每个JavaBean的回调
+     * @throws IOException exception
+     */
+    void read(CsvTokenizer tokenizer, boolean withHeader, Consumer<T> consumer) throws IOException {
+        String[] header = null;
+        if (withHeader) {
+            header = tokenizer.readRecord();
+            if (header == null) {
+                return;
+            }
+        }
+        Binding binding = bind(header);
+        tokenizer.setColumns(binding.columns);
+        while (true) {
+            binding.bean = newInstance();
+            if (! tokenizer.readRecord(binding)) {
+                return;
+            }
+            consumer.accept(binding.bean);
+        }
+    }
+
+    /**
+     * 确定每个属性对应的列，只在读取开始时执行一次
+     */
+    private Binding bind(String[] header) {
+        Map<String, Integer> headerIndex = new HashMap<>();
+        if (header != null) {
+            for (int i = header.length - 1; i >= 0; i--) {
+                headerIndex.put(header[i], i);
+                headerIndex.putIfAbsent(header[i].toLowerCase(), i);
+            }
+        }
+        Setter[] setters = new Setter[0];
+        String[] names = new String[0];
+        boolean[] keepEmpty = new boolean[0];
+        List<Integer> columns = new ArrayList<>();
+        for (Property property : properties) {
+            Integer column = property.index >= 0 ? Integer.valueOf(property.index) : headerIndex.get(property.name);
+            if (column == null) {
+                column = headerIndex.get(property.name.toLowerCase());
+            }
+            if (column == null) {
+                continue;
+            }
+            if (column >= setters.length) {
+                setters = Arrays.copyOf(setters, column + 1);
+                names = Arrays.copyOf(names, column + 1);
+                keepEmpty = Arrays.copyOf(keepEmpty, column + 1);
+            }
+            setters[column] = property.setter;
+            names[column] = property.name;
+            keepEmpty[column] = property.type == String.class;
+            columns.add(column);
+        }
+        if (columns.isEmpty()) {
+            throw new IllegalArgumentException("none of the properties of " + clazz.getName() + " match the csv columns");
+        }
+        return new Binding(columns.stream().mapToInt(Integer::intValue).toArray(), setters, names, keepEmpty);
+    }
+
+    private T newInstance() {
+        try {
+            return clazz.cast(constructor.invokeExact());
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("can not create instance of " + clazz.getName(), e);
+        }
+    }
+
+    private static MethodHandle findConstructor(Class<?> clazz) {
+        try {
+            Constructor<?> constructor = clazz.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return MethodHandles.lookup().unreflectConstructor(constructor).asType(MethodType.methodType(Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException(clazz.getName() + " must have a no-arg constructor", e);
+        }
+    }
+
+    private static List<Property> findProperties(Class<?> clazz) {
+        List<Property> properties = new ArrayList<>();
+        for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || Modifier.isFinal(modifiers)) {
+                    continue;
+                }
+                CsvColumn column = field.getAnnotation(CsvColumn.class);
+                if (column != null && column.ignore()) {
+                    continue;
+                }
+                String name = column == null || column.name().isEmpty() ? field.getName() : column.name();
+                int index = column == null ? -1 : column.index();
+                String format = column == null || column.format().isEmpty() ? DEFAULT_DATE_FORMAT : column.format();
+                properties.add(new Property(name, index, field.getType(), setter(field, findSetter(c, field), format)));
+            }
+        }
+        return properties;
+    }
+
+    /**
+     * 优先使用public的setter方法，没有时直接给属性赋值
+     */
+    private static MethodHandle findSetter(Class<?> clazz, Field field) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            Method method = clazz.getMethod("set" + StringUtils.capitalize(field.getName()), field.getType());
+            return lookup.unreflect(method);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            try {
+                field.setAccessible(true);
+                return lookup.unreflectSetter(field);
+            } catch (IllegalAccessException ex) {
+                throw new IllegalArgumentException("can not access field " + field, ex);
+            }
+        }
+    }
+
+    private static Setter setter(Field field, MethodHandle handle, String format) {
+        Class<?> type = field.getType();
+        MethodHandle h = handle.asType(MethodType.methodType(void.class, Object.class, type));
+        if (type == String.class) {
+            return (bean, chars, length) -> { h.invokeExact(bean, new String(chars, 0, length)); };
+        }
+        if (type == int.class) {
+            return (bean, chars, length) -> { h.invokeExact(bean, CsvNumbers.parseInt(chars, 0, length)); };
+        }
+        if (type == long.class) {
+            return (bean, chars, length) -> { h.invokeExact(bean, CsvNumbers.parseLong(chars, 0, length)); };
+        }
+        if (type == double.class) {
+            return (bean, chars, length) -> { h.invokeExact(bean, CsvNumbers.parseDouble(chars, 0, length)); };
+        }
+        if (type == float.class) {
+            return (bean, chars, length) -> { h.invokeExact(bean, (float) CsvNumbers.parseDouble(chars, 0, length)); };
+        }
+        if (type == boolean.class) {
+            return (bean, chars, length) -> { h.invokeExact(bean, parseBoolean(chars, length)); };
+        }
+        if (type == Integer.class) {
+            return (bean, chars, length) -> { h.invokeExact(bean, Integer.valueOf(CsvNumbers.parseInt(chars, 0, length))); };
+        }
+        if (type == Long.class) {
+            return (bean, chars, length) -> { h.invokeExact(bean, Long.valueOf(CsvNumbers.parseLong(chars, 0, length))); };
+        }
+        if (type == Double.class) {
+            return (bean, chars, length) -> { h.invokeExact(bean, Double.valueOf(CsvNumbers.parseDouble(chars, 0, length))); };
+        }
+        if (type == Float.class) {
+            return (bean, chars, length) -> { h.invokeExact(bean, Float.valueOf((float) CsvNumbers.parseDouble(chars, 0, length))); };
+        }
+        if (type == Boolean.class) {
+            return (bean, chars, length) -> { h.invokeExact(bean, Boolean.valueOf(parseBoolean(chars, length))); };
+        }
+        if (type == BigDecimal.class) {
+            return (bean, chars, length) -> { h.invokeExact(bean, new BigDecimal(chars, 0, length)); };
+        }
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(format);
+        if (type == LocalDate.class) {
+            return (bean, chars, length) -> { h.invokeExact(bean, LocalDate.from(formatter.parse(CharBuffer.wrap(chars, 0, length)))); };
+        }
+        if (type == LocalDateTime.class) {
+            return (bean, chars, length) -> { h.invokeExact(bean, parseDateTime(formatter, chars, length)); };
+        }
+        if (type == Date.class) {
+            return (bean, chars, length) -> { h.invokeExact(bean, Date.from(parseDateTime(formatter, chars, length).atZone(DEFAULT_ZONE).toInstant())); };
+        }
+        throw new IllegalArgumentException("unsupported csv property type: " + field);
+    }
+
+    private static boolean parseBoolean(char[] chars, int length) {
+        return length == 4 && (chars[0] == 't' || chars[0] == 'T') && (chars[1] == 'r' || chars[1] == 'R')
+                && (chars[2] == 'u' || chars[2] == 'U') && (chars[3] == 'e' || chars[3] == 'E');
+    }
+
+    private static LocalDateTime parseDateTime(DateTimeFormatter formatter, char[] chars, int length) {
+        TemporalAccessor temporal = formatter.parseBest(CharBuffer.wrap(chars, 0, length), LocalDateTime::from, LocalDate::from);
+        return temporal instanceof LocalDate ? ((LocalDate) temporal).atStartOfDay() : (LocalDateTime) temporal;
+    }
+
+    @FunctionalInterface
+    private interface Setter {
+        void set(Object bean, char[] chars, int length) throws Throwable;
+    }
+
+    private static final class Property {
+        private final String name;
+        private final int index;
+        private final Class<?> type;
+        private final Setter setter;
+
+        private Property(String name, int index, Class<?> type, Setter setter) {
+            this.name = name;
+            this.index = index;
+            this.type = type;
+            this.setter = setter;
+        }
+    }
+
+    /**
+     * 一次读取过程中列与属性的绑定关系，同时作为解析器的字段回调
+     */
+    private final class Binding implements CsvTokenizer.FieldHandler {
+        private final int[] columns;
+        private final Setter[] setters;
+        private final String[] names;
+        private final boolean[] keepEmpty;
+        private T bean;
+
+        private Binding(int[] columns, Setter[] setters, String[] names, boolean[] keepEmpty) {
+            this.columns = columns;
+            this.setters = setters;
+            this.names = names;
+            this.keepEmpty = keepEmpty;
+        }
+
+        @Override
+        public void field(int column, char[] chars, int length) {
+            // 空字段保留属性的默认值，String类型的属性除外
+            if (length == 0 && ! keepEmpty[column]) {
+                return;
+            }
+            try {
+                setters[column].set(bean, chars, length);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("can not convert csv value '" + new String(chars, 0, length)
+                        + "' to property " + names[column] + " of " + clazz.getName(), e);
+            } catch (Throwable e) {
+                throw new IllegalStateException("can not set property " + names[column] + " of " + clazz.getName(), e);
+            }
+        }
+    }
+}
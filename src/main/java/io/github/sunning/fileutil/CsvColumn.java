@@ -0,0 +1,35 @@
+package io.github.sunning.fileutil;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 声明JavaBean属性与csv列的对应关系，不加该注解时按属性名匹配列标题
+ **/
+
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CsvColumn {
+
+    /**
+     * 列标题，默认为属性名
+     */
+    String name() default "";
+
+    /**
+     * 列下标，从0开始，大于等于0时优先于列标题
+     */
+    int index() default -1;
+
+    /**
+     * 日期类型的格式，默认yyyy-MM-dd，时间部分HH:mm:ss可选
+     */
+    String format() default "";
+
+    /**
+     * 为true时忽略该属性
+     */
+    boolean ignore() default false;
+}
@@ -0,0 +1,383 @@
+package io.github.sunning.fileutil;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * 逐个字段构建CsvColumnarTable的一列
+ * 先假设整列都是整数，遇到小数时转为浮点数，遇到其他内容时转为字符串；字符串先按字典编码，不同值超过上限时转为UTF-8字节存储
+ * 只有能原样还原成原文的数字才按数字存储（如不接受007、+1、1e5），所以读回的字符串与文件内容一致
+ **/
+
+final class CsvColumnBuilder {
+
+    /**
+     * 字典编码最多保存的不同值数
+     */
+    static final int MAX_DICTIONARY_SIZE = 1 << 16;
+
+    /** 2^53，不超过该值的整数可以被double精确表示 */
+    private static final long MAX_EXACT_LONG = 1L << 53;
+
+    private CsvColumnarTable.Encoding state = CsvColumnarTable.Encoding.LONG;
+    private int size;
+
+    private BitSet nulls = new BitSet();
+    private long[] longs = new long[16];
+    private double[] doubles;
+    private BitSet integral;
+
+    private int[] codes;
+    private CharDictionary dictionary;
+
+    private byte[] bytes;
+    private int byteLength;
+    private int[] offsets;
+
+    /**
+     * 追加一个字段，row之前没有值的行按空字段补齐
+     */
+    void append(int row, char[] chars, int length) {
+        padTo(row);
+        if (length == 0) {
+            appendEmpty();
+            return;
+        }
+        if (state == CsvColumnarTable.Encoding.LONG) {
+            if (appendLong(chars, length)) {
+                return;
+            }
+            if (! toDouble()) {
+                toText();
+            }
+        }
+        if (state == CsvColumnarTable.Encoding.DOUBLE) {
+            if (appendDouble(chars, length)) {
+                return;
+            }
+            toText();
+        }
+        appendText(chars, length);
+    }
+
+    CsvColumnarTable.Column build(int rowCount) {
+        padTo(rowCount);
+        switch (state) {
+            case LONG:
+                return new CsvColumnarTable.LongColumn(Arrays.copyOf(longs, size), nulls);
+            case DOUBLE:
+                return new CsvColumnarTable.DoubleColumn(Arrays.copyOf(doubles, size), nulls, integral);
+            case DICTIONARY:
+                if (dictionary.size() > size / 2) {
+                    // 几乎没有重复值时字典不能省内存，改为字节存储
+                    toBytes();
+                    return buildBytes();
+                }
+                return new CsvColumnarTable.DictionaryColumn(dictionary.values(), Arrays.copyOf(codes, size));
+            default:
+                return buildBytes();
+        }
+    }
+
+    private CsvColumnarTable.Column buildBytes() {
+        return new CsvColumnarTable.StringColumn(Arrays.copyOf(bytes, byteLength), Arrays.copyOf(offsets, size + 1));
+    }
+
+    private void padTo(int row) {
+        while (size < row) {
+            appendEmpty();
+        }
+    }
+
+    private void appendEmpty() {
+        switch (state) {
+            case LONG:
+                ensureNumeric();
+                nulls.set(size);
+                longs[size++] = 0;
+                break;
+            case DOUBLE:
+                ensureNumeric();
+                nulls.set(size);
+                doubles[size++] = 0;
+                break;
+            default:
+                appendText(new char[0], 0);
+        }
+    }
+
+    private boolean appendLong(char[] chars, int length) {
+        if (! isCanonicalLong(chars, length)) {
+            return false;
+        }
+        long value;
+        try {
+            value = CsvNumbers.parseLong(chars, 0, length);
+        } catch (NumberFormatException e) {
+            // 超出long的范围
+            return false;
+        }
+        ensureNumeric();
+        longs[size++] = value;
+        return true;
+    }
+
+    private boolean appendDouble(char[] chars, int length) {
+        if (isCanonicalLong(chars, length)) {
+            long value;
+            try {
+                value = CsvNumbers.parseLong(chars, 0, length);
+            } catch (NumberFormatException e) {
+                return false;
+            }
+            if (Math.abs(value) > MAX_EXACT_LONG) {
+                return false;
+            }
+            ensureNumeric();
+            integral.set(size);
+            doubles[size++] = value;
+            return true;
+        }
+        char first = chars[0];
+        if (first != '-' && (first < '0' || first > '9')) {
+            return false;
+        }
+        double value;
+        try {
+            value = CsvNumbers.parseDouble(chars, 0, length);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (! contentEquals(Double.toString(value), chars, length)) {
+            return false;
+        }
+        ensureNumeric();
+        doubles[size++] = value;
+        return true;
+    }
+
+    private boolean toDouble() {
+        for (int i = 0; i < size; i++) {
+            if (Math.abs(longs[i]) > MAX_EXACT_LONG) {
+                return false;
+            }
+        }
+        doubles = new double[longs.length];
+        integral = new BitSet();
+        for (int i = 0; i < size; i++) {
+            doubles[i] = longs[i];
+            if (! nulls.get(i)) {
+                integral.set(i);
+            }
+        }
+        longs = null;
+        state = CsvColumnarTable.Encoding.DOUBLE;
+        return true;
+    }
+
+    /**
+     * 把已有的数字还原成文本，转为字典编码
+     */
+    private void toText() {
+        CsvColumnarTable.Column numbers = state == CsvColumnarTable.Encoding.LONG
+                ? new CsvColumnarTable.LongColumn(longs, nulls)
+                : new CsvColumnarTable.DoubleColumn(doubles, nulls, integral);
+        int count = size;
+        longs = null;
+        doubles = null;
+        integral = null;
+        nulls = null;
+        state = CsvColumnarTable.Encoding.DICTIONARY;
+        dictionary = new CharDictionary();
+        codes = new int[Math.max(16, count)];
+        size = 0;
+        for (int i = 0; i < count; i++) {
+            char[] chars = numbers.get(i).toCharArray();
+            appendText(chars, chars.length);
+        }
+    }
+
+    private void appendText(char[] chars, int length) {
+        if (state == CsvColumnarTable.Encoding.DICTIONARY) {
+            int code = dictionary.add(chars, length);
+            if (code >= 0) {
+                if (size == codes.length) {
+                    codes = Arrays.copyOf(codes, size * 2);
+                }
+                codes[size++] = code;
+                return;
+            }
+            toBytes();
+        }
+        if (offsets.length < size + 2) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        ensureBytes(length * 3);
+        byteLength = encodeUtf8(chars, length, bytes, byteLength);
+        offsets[++size] = byteLength;
+    }
+
+    /**
+     * 字典编码转为UTF-8字节存储
+     */
+    private void toBytes() {
+        String[] values = dictionary.values();
+        int[] oldCodes = codes;
+        int count = size;
+        codes = null;
+        dictionary = null;
+        state = CsvColumnarTable.Encoding.STRING;
+        bytes = new byte[Math.max(64, count * 8)];
+        offsets = new int[count + 16];
+        byteLength = 0;
+        size = 0;
+        for (int i = 0; i < count; i++) {
+            char[] chars = values[oldCodes[i]].toCharArray();
+            appendText(chars, chars.length);
+        }
+    }
+
+    private void ensureNumeric() {
+        if (state == CsvColumnarTable.Encoding.LONG && size == longs.length) {
+            longs = Arrays.copyOf(longs, size * 2);
+        } else if (state == CsvColumnarTable.Encoding.DOUBLE && size == doubles.length) {
+            doubles = Arrays.copyOf(doubles, size * 2);
+        }
+    }
+
+    private void ensureBytes(int extra) {
+        if (bytes.length - byteLength < extra) {
+            long capacity = Math.max((long) bytes.length * 2, (long) byteLength + extra);
+            if (capacity > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("csv column is too large to load: " + capacity + " bytes");
+            }
+            bytes = Arrays.copyOf(bytes, (int) capacity);
+        }
+    }
+
+    /**
+     * 没有前导零和正号的十进制整数，解析后再格式化能得到原文
+     */
+    private static boolean isCanonicalLong(char[] chars, int length) {
+        int i = chars[0] == '-' ? 1 : 0;
+        int digits = length - i;
+        if (digits == 0 || digits > 19 || (chars[i] == '0' && (digits > 1 || i == 1))) {
+            return false;
+        }
+        for (; i < length; i++) {
+            if (chars[i] < '0' || chars[i] > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean contentEquals(String value, char[] chars, int length) {
+        if (value.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) != chars[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 按UTF-8编码写入dst，不成对的代理项写成?，与String.getBytes的结果一致
+     * @return 写入后的位置
+     */
+    static int encodeUtf8(char[] chars, int length, byte[] dst, int position) {
+        for (int i = 0; i < length; i++) {
+            char c = chars[i];
+            if (c < 0x80) {
+                dst[position++] = (byte) c;
+            } else if (c < 0x800) {
+                dst[position++] = (byte) (0xC0 | (c >> 6));
+                dst[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(chars[i + 1])) {
+                int codePoint = Character.toCodePoint(c, chars[++i]);
+                dst[position++] = (byte) (0xF0 | (codePoint >> 18));
+                dst[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                dst[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                dst[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                dst[position++] = '?';
+            } else {
+                dst[position++] = (byte) (0xE0 | (c >> 12));
+                dst[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                dst[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return position;
+    }
+
+    /**
+     * 直接用char数组查找的字符串字典，已有的值不需要再创建String
+     */
+    private static final class CharDictionary {
+        private String[] values = new String[16];
+        private int[] hashes = new int[16];
+        /** 开放寻址表，保存编码+1，0表示空位 */
+        private int[] table = new int[32];
+        private int size;
+
+        /**
+         * @return 值的编码，字典已满且是新值时返回-1
+         */
+        int add(char[] chars, int length) {
+            int hash = 0;
+            for (int i = 0; i < length; i++) {
+                hash = 31 * hash + chars[i];
+            }
+            int mask = table.length - 1;
+            int slot = mix(hash) & mask;
+            while (table[slot] != 0) {
+                int code = table[slot] - 1;
+                if (hashes[code] == hash && contentEquals(values[code], chars, length)) {
+                    return code;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (size == MAX_DICTIONARY_SIZE) {
+                return -1;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+                hashes = Arrays.copyOf(hashes, size * 2);
+            }
+            values[size] = new String(chars, 0, length);
+            hashes[size] = hash;
+            table[slot] = ++size;
+            if (size * 2 > table.length) {
+                rehash();
+            }
+            return size - 1;
+        }
+
+        int size() {
+            return size;
+        }
+
+        String[] values() {
+            return Arrays.copyOf(values, size);
+        }
+
+        private void rehash() {
+            table = new int[table.length * 2];
+            int mask = table.length - 1;
+            for (int code = 0; code < size; code++) {
+                int slot = mix(hashes[code]) & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = code + 1;
+            }
+        }
+
+        private static int mix(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
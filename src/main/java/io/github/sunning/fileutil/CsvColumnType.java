@@ -0,0 +1,25 @@
+package io.github.sunning.fileutil;
+
+/**
+ * csv列的数据类型，由CsvSchema根据抽样数据推断
+ * 推断时按声明顺序选择第一个能表示所有非空抽样值的类型，都不能表示时为STRING
+ **/
+
+public enum CsvColumnType {
+    /** true、false，不区分大小写 */
+    BOOLEAN,
+    /** int范围内的整数 */
+    INT,
+    /** long范围内的整数 */
+    LONG,
+    /** yyyy-MM-dd格式的日期 */
+    DATE,
+    /** yyyy-MM-dd HH:mm:ss格式的时间，也可以只有日期部分 */
+    DATETIME,
+    /** 不超过15位有效数字的小数，可以被double精确还原 */
+    DOUBLE,
+    /** 任意精度的小数，用BigDecimal表示 */
+    DECIMAL,
+    /** 字符串 */
+    STRING
+}
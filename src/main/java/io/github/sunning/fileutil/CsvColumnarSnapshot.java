@@ -0,0 +1,293 @@
+package io.github.sunning.fileutil;
+
+import com.google.common.base.Charsets;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.zip.CRC32;
+
+/**
+ * CsvColumnarTable的二进制快照，保存在csv文件旁边，csv文件没有变化时直接从快照加载，不再解析文本
+ * 快照通过文件大小、修改时间和抽样内容的CRC32与csv文件对应，任意一项不一致都会重新解析并覆盖快照
+ * 读写都通过内存映射，每列数据整块复制，不逐个字段解码
+ **/
+
+final class CsvColumnarSnapshot {
+
+    /**
+     * 快照文件名的后缀
+     */
+    static final String SUFFIX = ".columnar";
+
+    private static final int MAGIC = 0x43535643;
+    private static final int VERSION = 1;
+
+    /** 计算CRC32时从文件头、中间、末尾各取的字节数 */
+    private static final int SAMPLE_SIZE = 64 * 1024;
+
+    private final File source;
+    private final File snapshot;
+    private final boolean withHeader;
+
+    CsvColumnarSnapshot(File source, File snapshot, boolean withHeader) {
+        this.source = source;
+        this.snapshot = snapshot;
+        this.withHeader = withHeader;
+    }
+
+    /**
+     * 优先从快照加载，快照不存在或已过期时解析csv文件并重新生成快照
+     */
+    CsvColumnarTable load() throws Exception {
+        long[] key = key();
+        CsvColumnarTable table = read(key);
+        if (table != null) {
+            return table;
+        }
+        table = CsvColumnarTable.load(source.getPath(), withHeader);
+        try {
+            write(table, key);
+        } catch (IOException e) {
+            // 快照只是加速手段，目录不可写等情况下照常返回解析结果
+            snapshot.delete();
+        }
+        return table;
+    }
+
+    /**
+     * @return 文件大小、修改时间、抽样内容的CRC32
+     */
+    long[] key() throws IOException {
+        long size = source.length();
+        long modified = source.lastModified();
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(SAMPLE_SIZE);
+            for (long position : new long[]{0, size / 2, Math.max(0, size - SAMPLE_SIZE)}) {
+                buffer.clear();
+                while (buffer.hasRemaining() && channel.read(buffer, position + buffer.position()) > 0) {
+                    // read until the sample is full or the file ends
+                }
+                buffer.flip();
+                crc.update(buffer.array(), 0, buffer.limit());
+            }
+        }
+        return new long[]{size, modified, crc.getValue()};
+    }
+
+    /**
+     * @return 快照与key一致时返回快照中的表，否则返回null
+     */
+    CsvColumnarTable read(long[] key) {
+        if (! snapshot.isFile()) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(snapshot.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getLong() != key[0]
+                    || buffer.getLong() != key[1] || buffer.getLong() != key[2] || (buffer.get() == 1) != withHeader) {
+                return null;
+            }
+            int rowCount = buffer.getInt();
+            int columnCount = buffer.getInt();
+            int headerLength = buffer.getInt();
+            String[] header = null;
+            if (headerLength >= 0) {
+                header = new String[headerLength];
+                for (int i = 0; i < headerLength; i++) {
+                    header[i] = getString(buffer);
+                }
+            }
+            CsvColumnarTable.Column[] columns = new CsvColumnarTable.Column[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                columns[i] = readColumn(buffer, rowCount);
+            }
+            return new CsvColumnarTable(header, columns, rowCount);
+        } catch (IOException | RuntimeException e) {
+            // 快照损坏时按没有快照处理
+            return null;
+        }
+    }
+
+    /**
+     * 先写临时文件再原子替换，读取方不会看到写了一半的快照
+     */
+    void write(CsvColumnarTable table, long[] key) throws IOException {
+        CsvColumnarTable.Column[] columns = table.columns();
+        String[] header = table.getHeader();
+        long size = 4 + 4 + 8 * 3 + 1 + 4 + 4 + 4;
+        if (header != null) {
+            for (String name : header) {
+                size += stringSize(name);
+            }
+        }
+        for (CsvColumnarTable.Column column : columns) {
+            size += columnSize(column);
+        }
+        if (size > Integer.MAX_VALUE) {
+            return;
+        }
+        File temp = File.createTempFile(snapshot.getName(), ".tmp", snapshot.getAbsoluteFile().getParentFile());
+        try {
+            try (RandomAccessFile file = new RandomAccessFile(temp, "rw");
+                 FileChannel channel = file.getChannel()) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                buffer.putInt(MAGIC).putInt(VERSION).putLong(key[0]).putLong(key[1]).putLong(key[2]);
+                buffer.put((byte) (withHeader ? 1 : 0));
+                buffer.putInt(table.getRowCount()).putInt(columns.length).putInt(header == null ? -1 : header.length);
+                if (header != null) {
+                    for (String name : header) {
+                        putString(buffer, name);
+                    }
+                }
+                for (CsvColumnarTable.Column column : columns) {
+                    writeColumn(buffer, column);
+                }
+                buffer.force();
+            }
+            Files.move(temp.toPath(), snapshot.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            temp.delete();
+        }
+    }
+
+    private static CsvColumnarTable.Column readColumn(ByteBuffer buffer, int rowCount) {
+        CsvColumnarTable.Encoding encoding = CsvColumnarTable.Encoding.values()[buffer.get()];
+        switch (encoding) {
+            case LONG: {
+                long[] values = new long[rowCount];
+                buffer.asLongBuffer().get(values);
+                skip(buffer, rowCount * 8);
+                return new CsvColumnarTable.LongColumn(values, getBits(buffer));
+            }
+            case DOUBLE: {
+                double[] values = new double[rowCount];
+                buffer.asDoubleBuffer().get(values);
+                skip(buffer, rowCount * 8);
+                return new CsvColumnarTable.DoubleColumn(values, getBits(buffer), getBits(buffer));
+            }
+            case DICTIONARY: {
+                String[] dictionary = new String[buffer.getInt()];
+                for (int i = 0; i < dictionary.length; i++) {
+                    dictionary[i] = getString(buffer);
+                }
+                int[] codes = new int[rowCount];
+                buffer.asIntBuffer().get(codes);
+                skip(buffer, rowCount * 4);
+                return new CsvColumnarTable.DictionaryColumn(dictionary, codes);
+            }
+            default: {
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                int[] offsets = new int[rowCount + 1];
+                buffer.asIntBuffer().get(offsets);
+                skip(buffer, offsets.length * 4);
+                return new CsvColumnarTable.StringColumn(bytes, offsets);
+            }
+        }
+    }
+
+    private static void writeColumn(ByteBuffer buffer, CsvColumnarTable.Column column) {
+        buffer.put((byte) column.encoding().ordinal());
+        if (column instanceof CsvColumnarTable.LongColumn) {
+            CsvColumnarTable.LongColumn c = (CsvColumnarTable.LongColumn) column;
+            buffer.asLongBuffer().put(c.values);
+            skip(buffer, c.values.length * 8);
+            putBits(buffer, c.nulls);
+        } else if (column instanceof CsvColumnarTable.DoubleColumn) {
+            CsvColumnarTable.DoubleColumn c = (CsvColumnarTable.DoubleColumn) column;
+            buffer.asDoubleBuffer().put(c.values);
+            skip(buffer, c.values.length * 8);
+            putBits(buffer, c.nulls);
+            putBits(buffer, c.integral);
+        } else if (column instanceof CsvColumnarTable.DictionaryColumn) {
+            CsvColumnarTable.DictionaryColumn c = (CsvColumnarTable.DictionaryColumn) column;
+            buffer.putInt(c.dictionary.length);
+            for (String value : c.dictionary) {
+                putString(buffer, value);
+            }
+            buffer.asIntBuffer().put(c.codes);
+            skip(buffer, c.codes.length * 4);
+        } else {
+            CsvColumnarTable.StringColumn c = (CsvColumnarTable.StringColumn) column;
+            buffer.putInt(c.bytes.length);
+            buffer.put(c.bytes);
+            buffer.asIntBuffer().put(c.offsets);
+            skip(buffer, c.offsets.length * 4);
+        }
+    }
+
+    private static long columnSize(CsvColumnarTable.Column column) {
+        long size = 1;
+        if (column instanceof CsvColumnarTable.LongColumn) {
+            CsvColumnarTable.LongColumn c = (CsvColumnarTable.LongColumn) column;
+            size += c.values.length * 8L + bitsSize(c.nulls);
+        } else if (column instanceof CsvColumnarTable.DoubleColumn) {
+            CsvColumnarTable.DoubleColumn c = (CsvColumnarTable.DoubleColumn) column;
+            size += c.values.length * 8L + bitsSize(c.nulls) + bitsSize(c.integral);
+        } else if (column instanceof CsvColumnarTable.DictionaryColumn) {
+            CsvColumnarTable.DictionaryColumn c = (CsvColumnarTable.DictionaryColumn) column;
+            size += 4;
+            for (String value : c.dictionary) {
+                size += stringSize(value);
+            }
+            size += c.codes.length * 4L;
+        } else {
+            CsvColumnarTable.StringColumn c = (CsvColumnarTable.StringColumn) column;
+            size += 4 + c.bytes.length + c.offsets.length * 4L;
+        }
+        return size;
+    }
+
+    private static void skip(ByteBuffer buffer, int bytes) {
+        buffer.position(buffer.position() + bytes);
+    }
+
+    private static BitSet getBits(ByteBuffer buffer) {
+        long[] words = new long[buffer.getInt()];
+        buffer.asLongBuffer().get(words);
+        skip(buffer, words.length * 8);
+        return BitSet.valueOf(words);
+    }
+
+    private static void putBits(ByteBuffer buffer, BitSet bits) {
+        long[] words = bits.toLongArray();
+        buffer.putInt(words.length);
+        buffer.asLongBuffer().put(words);
+        skip(buffer, words.length * 8);
+    }
+
+    private static long bitsSize(BitSet bits) {
+        return 4 + bits.toLongArray().length * 8L;
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, Charsets.UTF_8);
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(Charsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static long stringSize(String value) {
+        return 4 + value.getBytes(Charsets.UTF_8).length;
+    }
+}
@@ -0,0 +1,535 @@
+package io.github.sunning.fileutil;
+
+import com.google.common.base.Charsets;
+import org.apache.commons.lang3.ArrayUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.DoublePredicate;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+
+/**
+ * 按列存储的只读csv表，适合把csv数据常驻内存做查找和按列扫描
+ * 每列根据内容选择存储方式：整数列存成long[]，小数列存成double[]，重复值多的字符串列按字典编码成int[]，
+ * 其余字符串列存成UTF-8字节，读取时才转换成String；相比List&lt;String[]&gt;不再为每个字段保存一个String对象
+ * 空字段和列数不足的行缺少的字段统一按空字符串处理
+ **/
+
+public final class CsvColumnarTable {
+
+    /**
+     * 列的存储方式
+     */
+    public enum Encoding {
+        /** long数组 */
+        LONG,
+        /** double数组 */
+        DOUBLE,
+        /** 字典编码，每行保存字典中的下标 */
+        DICTIONARY,
+        /** UTF-8字节，读取时才转换成String */
+        STRING
+    }
+
+    private final String[] header;
+    private final Column[] columns;
+    private final int rowCount;
+
+    CsvColumnarTable(String[] header, Column[] columns, int rowCount) {
+        this.header = header;
+        this.columns = columns;
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * 以UTF-8编码读取csv文件，gzip压缩的文件会自动解压
+     * @param filePath csv文件的路径
+     * @param withHeader 第一行是否为列标题
+     * @return 列式存储的表
+     * @throws Exception exception
+     */
+    public static CsvColumnarTable load(String filePath, boolean withHeader) throws Exception {
+        return load(new FileInputStream(filePath), Charsets.UTF_8, withHeader, null);
+    }
+
+    /**
+     * 读取csv文件，同时使用二进制快照：csv文件没有变化时直接从快照加载，否则解析文本后重新生成快照
+     * @param filePath csv文件的路径
+     * @param withHeader 第一行是否为列标题
+     * @param snapshotPath 快照文件的路径，需要对所在目录有写权限，否则每次都会解析文本
+     * @return 列式存储的表
+     * @throws Exception exception
+     */
+    public static CsvColumnarTable load(String filePath, boolean withHeader, String snapshotPath) throws Exception {
+        return new CsvColumnarSnapshot(new File(filePath), new File(snapshotPath), withHeader).load();
+    }
+
+    /**
+     * @param inputStream stream，读取完毕后会被关闭
+     * @param charset csv文件的编码
+     * @param withHeader 第一行是否为列标题
+     * @param columns 指定读取csv文件的哪几列，如果为null，则读取全部列
+     * @return 列式存储的表
+     * @throws Exception exception
+     */
+    public static CsvColumnarTable load(InputStream inputStream, Charset charset, boolean withHeader, int[] columns) throws Exception {
+        try (Reader reader = new InputStreamReader(CsvUtil.decompressIfGzip(inputStream), charset)) {
+            return load(new CsvTokenizer(reader), withHeader, ArrayUtils.isEmpty(columns) ? null : columns);
+        }
+    }
+
+    private static CsvColumnarTable load(CsvTokenizer tokenizer, boolean withHeader, int[] columns) throws IOException {
+        tokenizer.setColumns(columns);
+        Loader loader = new Loader(columns);
+        String[] header = withHeader ? tokenizer.readRecord() : null;
+        while (tokenizer.readRecord(loader)) {
+            loader.row++;
+        }
+        int width = Math.max(loader.builders.size(), header == null ? 0 : header.length);
+        Column[] result = new Column[width];
+        for (int i = 0; i < width; i++) {
+            result[i] = loader.builder(i).build(loader.row);
+        }
+        return new CsvColumnarTable(header, result, loader.row);
+    }
+
+    /**
+     * 行数，不包括标题行
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    /**
+     * @return 列标题，读取时withHeader为false时返回null
+     */
+    public String[] getHeader() {
+        return header == null ? null : header.clone();
+    }
+
+    /**
+     * @param name 列标题
+     * @return 列下标，找不到时返回-1
+     */
+    public int getColumnIndex(String name) {
+        if (header != null) {
+            for (int i = 0; i < header.length; i++) {
+                if (header[i].equals(name)) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    public Encoding getEncoding(int column) {
+        return columns[column].encoding();
+    }
+
+    /**
+     * @return 字段的原始文本，空字段返回空字符串
+     */
+    public String get(int row, int column) {
+        checkRow(row);
+        return columns[column].get(row);
+    }
+
+    /**
+     * @return 一行的所有字段
+     */
+    public String[] getRow(int row) {
+        checkRow(row);
+        String[] values = new String[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            values[i] = columns[i].get(row);
+        }
+        return values;
+    }
+
+    public boolean isNull(int row, int column) {
+        checkRow(row);
+        return columns[column].isNull(row);
+    }
+
+    /**
+     * 读取整数，LONG列直接返回，其余列解析文本；空字段返回0
+     */
+    public long getLong(int row, int column) {
+        checkRow(row);
+        Column c = columns[column];
+        if (c.isNull(row)) {
+            return 0;
+        }
+        if (c instanceof LongColumn) {
+            return ((LongColumn) c).values[row];
+        }
+        return Long.parseLong(c.get(row));
+    }
+
+    /**
+     * 读取小数，LONG、DOUBLE列直接返回，其余列解析文本；空字段返回0
+     */
+    public double getDouble(int row, int column) {
+        checkRow(row);
+        Column c = columns[column];
+        if (c.isNull(row)) {
+            return 0;
+        }
+        if (c instanceof LongColumn) {
+            return ((LongColumn) c).values[row];
+        }
+        if (c instanceof DoubleColumn) {
+            return ((DoubleColumn) c).values[row];
+        }
+        return Double.parseDouble(c.get(row));
+    }
+
+    /**
+     * 查找指定列等于value的行，字典编码的列只比较编码，字节存储的列直接比较字节
+     * @return 满足条件的行号，升序
+     */
+    public int[] scanEquals(int column, String value) {
+        return columns[column].scanEquals(value);
+    }
+
+    /**
+     * 查找指定列满足条件的行，字典编码的列对每个不同值只判断一次
+     * @return 满足条件的行号，升序
+     */
+    public int[] scan(int column, Predicate<String> predicate) {
+        return columns[column].scan(predicate);
+    }
+
+    /**
+     * 按整数值扫描LONG列，空字段不参与判断
+     * @return 满足条件的行号，升序
+     */
+    public int[] scanLong(int column, LongPredicate predicate) {
+        Column c = columns[column];
+        if (! (c instanceof LongColumn)) {
+            throw new IllegalArgumentException("column " + column + " is not a LONG column: " + c.encoding());
+        }
+        long[] values = ((LongColumn) c).values;
+        RowList rows = new RowList();
+        for (int i = 0; i < values.length; i++) {
+            if (! c.isNull(i) && predicate.test(values[i])) {
+                rows.add(i);
+            }
+        }
+        return rows.toArray();
+    }
+
+    /**
+     * 按数值扫描LONG、DOUBLE列，空字段不参与判断
+     * @return 满足条件的行号，升序
+     */
+    public int[] scanDouble(int column, DoublePredicate predicate) {
+        Column c = columns[column];
+        RowList rows = new RowList();
+        if (c instanceof LongColumn) {
+            long[] values = ((LongColumn) c).values;
+            for (int i = 0; i < values.length; i++) {
+                if (! c.isNull(i) && predicate.test(values[i])) {
+                    rows.add(i);
+                }
+            }
+        } else if (c instanceof DoubleColumn) {
+            double[] values = ((DoubleColumn) c).values;
+            for (int i = 0; i < values.length; i++) {
+                if (! c.isNull(i) && predicate.test(values[i])) {
+                    rows.add(i);
+                }
+            }
+        } else {
+            throw new IllegalArgumentException("column " + column + " is not a numeric column: " + c.encoding());
+        }
+        return rows.toArray();
+    }
+
+    Column[] columns() {
+        return columns;
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("row: " + row + ", rowCount: " + rowCount);
+        }
+    }
+
+    /**
+     * 把解析出的字段交给对应列的CsvColumnBuilder
+     */
+    private static final class Loader implements CsvTokenizer.FieldHandler {
+        private final List<CsvColumnBuilder> builders = new ArrayList<>();
+        /** 原始列下标到结果列下标的映射，为null时不投影 */
+        private final int[] slotOf;
+        private int row;
+
+        private Loader(int[] columns) {
+            if (columns == null) {
+                slotOf = null;
+                return;
+            }
+            int max = 0;
+            for (int column : columns) {
+                max = Math.max(max, column);
+            }
+            slotOf = new int[max + 1];
+            Arrays.fill(slotOf, -1);
+            for (int i = 0; i < columns.length; i++) {
+                if (slotOf[columns[i]] >= 0) {
+                    throw new IllegalArgumentException("duplicate column: " + columns[i]);
+                }
+                slotOf[columns[i]] = i;
+                builder(i);
+            }
+        }
+
+        @Override
+        public void field(int column, char[] chars, int length) {
+            builder(slotOf == null ? column : slotOf[column]).append(row, chars, length);
+        }
+
+        private CsvColumnBuilder builder(int index) {
+            while (builders.size() <= index) {
+                builders.add(new CsvColumnBuilder());
+            }
+            return builders.get(index);
+        }
+    }
+
+    /**
+     * 扫描结果的行号列表
+     */
+    static final class RowList {
+        private int[] rows = new int[16];
+        private int size;
+
+        void add(int row) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            rows[size++] = row;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(rows, size);
+        }
+    }
+
+    abstract static class Column {
+
+        abstract Encoding encoding();
+
+        abstract int size();
+
+        abstract String get(int row);
+
+        boolean isNull(int row) {
+            return get(row).isEmpty();
+        }
+
+        int[] scanEquals(String value) {
+            return scan(value::equals);
+        }
+
+        int[] scan(Predicate<String> predicate) {
+            RowList rows = new RowList();
+            for (int i = 0; i < size(); i++) {
+                if (predicate.test(get(i))) {
+                    rows.add(i);
+                }
+            }
+            return rows.toArray();
+        }
+    }
+
+    static final class LongColumn extends Column {
+        final long[] values;
+        final BitSet nulls;
+
+        LongColumn(long[] values, BitSet nulls) {
+            this.values = values;
+            this.nulls = nulls;
+        }
+
+        @Override
+        Encoding encoding() {
+            return Encoding.LONG;
+        }
+
+        @Override
+        int size() {
+            return values.length;
+        }
+
+        @Override
+        String get(int row) {
+            return nulls.get(row) ? "" : Long.toString(values[row]);
+        }
+
+        @Override
+        boolean isNull(int row) {
+            return nulls.get(row);
+        }
+    }
+
+    static final class DoubleColumn extends Column {
+        final double[] values;
+        final BitSet nulls;
+        /** 原文是整数写法的行，还原时不带小数点 */
+        final BitSet integral;
+
+        DoubleColumn(double[] values, BitSet nulls, BitSet integral) {
+            this.values = values;
+            this.nulls = nulls;
+            this.integral = integral;
+        }
+
+        @Override
+        Encoding encoding() {
+            return Encoding.DOUBLE;
+        }
+
+        @Override
+        int size() {
+            return values.length;
+        }
+
+        @Override
+        String get(int row) {
+            if (nulls.get(row)) {
+                return "";
+            }
+            return integral.get(row) ? Long.toString((long) values[row]) : Double.toString(values[row]);
+        }
+
+        @Override
+        boolean isNull(int row) {
+            return nulls.get(row);
+        }
+    }
+
+    static final class DictionaryColumn extends Column {
+        final String[] dictionary;
+        final int[] codes;
+
+        DictionaryColumn(String[] dictionary, int[] codes) {
+            this.dictionary = dictionary;
+            this.codes = codes;
+        }
+
+        @Override
+        Encoding encoding() {
+            return Encoding.DICTIONARY;
+        }
+
+        @Override
+        int size() {
+            return codes.length;
+        }
+
+        @Override
+        String get(int row) {
+            return dictionary[codes[row]];
+        }
+
+        @Override
+        int[] scanEquals(String value) {
+            int code = Arrays.asList(dictionary).indexOf(value);
+            RowList rows = new RowList();
+            if (code >= 0) {
+                for (int i = 0; i < codes.length; i++) {
+                    if (codes[i] == code) {
+                        rows.add(i);
+                    }
+                }
+            }
+            return rows.toArray();
+        }
+
+        @Override
+        int[] scan(Predicate<String> predicate) {
+            boolean[] matched = new boolean[dictionary.length];
+            for (int i = 0; i < dictionary.length; i++) {
+                matched[i] = predicate.test(dictionary[i]);
+            }
+            RowList rows = new RowList();
+            for (int i = 0; i < codes.length; i++) {
+                if (matched[codes[i]]) {
+                    rows.add(i);
+                }
+            }
+            return rows.toArray();
+        }
+    }
+
+    static final class StringColumn extends Column {
+        final byte[] bytes;
+        /** 第i行的字节范围是[offsets[i], offsets[i + 1]) */
+        final int[] offsets;
+
+        StringColumn(byte[] bytes, int[] offsets) {
+            this.bytes = bytes;
+            this.offsets = offsets;
+        }
+
+        @Override
+        Encoding encoding() {
+            return Encoding.STRING;
+        }
+
+        @Override
+        int size() {
+            return offsets.length - 1;
+        }
+
+        @Override
+        String get(int row) {
+            return new String(bytes, offsets[row], offsets[row + 1] - offsets[row], Charsets.UTF_8);
+        }
+
+        @Override
+        boolean isNull(int row) {
+            return offsets[row] == offsets[row + 1];
+        }
+
+        @Override
+        int[] scanEquals(String value) {
+            char[] chars = value.toCharArray();
+            byte[] target = new byte[chars.length * 3];
+            int length = CsvColumnBuilder.encodeUtf8(chars, chars.length, target, 0);
+            RowList rows = new RowList();
+            for (int i = 0; i < size(); i++) {
+                int from = offsets[i];
+                if (offsets[i + 1] - from == length && regionEquals(from, target, length)) {
+                    rows.add(i);
+                }
+            }
+            return rows.toArray();
+        }
+
+        private boolean regionEquals(int from, byte[] target, int length) {
+            for (int j = 0; j < length; j++) {
+                if (bytes[from + j] != target[j]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package io.github.sunning.fileutil;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 对超过内存大小的csv文件做外部排序和分组聚合
+ * 读取时每攒满spillRows行就交给线程池排序并写入一个临时文件（一个有序段），最多同时有parallelism个段在排序，
+ * 读完后对所有有序段做k路归并；段数超过单次归并的上限时先分批归并成更大的段
+ * 排序是稳定的，键相同的行保持原文件中的先后顺序；输出文件名以.gz结尾时以gzip格式写入
+ **/
+
+public class CsvExternalSorter {
+
+    /**
+     * 默认每个有序段的行数
+     */
+    public static final int DEFAULT_SPILL_ROWS = 200_000;
+
+    /**
+     * 单次归并最多同时打开的有序段数
+     */
+    static final int MAX_MERGE_WIDTH = 64;
+
+    private final int spillRows;
+    private final int parallelism;
+    private final File tempDir;
+    private final int mergeWidth;
+
+    public CsvExternalSorter() {
+        this(DEFAULT_SPILL_ROWS, Runtime.getRuntime().availableProcessors(), null);
+    }
+
+    /**
+     * @param spillRows 每个有序段的行数，内存中最多同时保留(parallelism + 1) * spillRows行
+     * @param parallelism 同时排序的有序段数
+     * @param tempDir 临时文件目录，为null时使用系统临时目录
+     */
+    public CsvExternalSorter(int spillRows, int parallelism, File tempDir) {
+        this(spillRows, parallelism, tempDir, MAX_MERGE_WIDTH);
+    }
+
+    CsvExternalSorter(int spillRows, int parallelism, File tempDir, int mergeWidth) {
+        if (spillRows <= 0) {
+            throw new IllegalArgumentException("spillRows must be positive: " + spillRows);
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        if (mergeWidth < 2) {
+            throw new IllegalArgumentException("mergeWidth must be at least 2: " + mergeWidth);
+        }
+        this.spillRows = spillRows;
+        this.parallelism = parallelism;
+        this.tempDir = tempDir;
+        this.mergeWidth = mergeWidth;
+    }
+
+    /**
+     * 按指定列的字符串值升序排序
+     * @param inputPath 待排序的csv文件路径
+     * @param outputPath 排序结果的csv文件路径
+     * @param withHeader 第一行是否为列标题，为true时标题行原样写在结果的第一行，不参与排序
+     * @param keyColumns 排序的列，靠前的列优先
+     * @throws Exception exception
+     */
+    public void sort(String inputPath, String outputPath, boolean withHeader, int... keyColumns) throws Exception {
+        sort(inputPath, outputPath, withHeader, byColumns(keyColumns));
+    }
+
+    /**
+     * 按自定义的比较器排序
+     * @param inputPath 待排序的csv文件路径
+     * @param outputPath 排序结果的csv文件路径
+     * @param withHeader 第一行是否为列标题，为true时标题行原样写在结果的第一行，不参与排序
+     * @param comparator 行的比较器
+     * @throws Exception exception
+     */
+    public void sort(String inputPath, String outputPath, boolean withHeader, Comparator<String[]> comparator) throws Exception {
+        List<File> runs = new ArrayList<>();
+        try (CsvRowIterator rows = CsvUtil.iterator(inputPath, true, null);
+             CsvFileWriter writer = new CsvFileWriter(outputPath, false)) {
+            if (withHeader && rows.hasNext()) {
+                writer.writeRow(rows.next());
+            }
+            List<String[]> last = spill(rows, comparator, runs);
+            if (last != null) {
+                // 数据没有超过一个有序段，直接在内存中排序
+                writer.writeRows(last.iterator());
+                return;
+            }
+            File merged = mergeRuns(runs, comparator);
+            try (CsvRowIterator sorted = CsvUtil.iterator(merged.getPath(), true, null)) {
+                writer.writeRows(sorted);
+            }
+        } finally {
+            deleteAll(runs);
+        }
+    }
+
+    /**
+     * 按指定列分组聚合，结果按分组列升序排列
+     * 结果的每一行依次为分组列的值和各个聚合结果；withHeader为true时结果的标题为分组列的标题和count、sum(列标题)这样的聚合标题
+     * @param inputPath 待聚合的csv文件路径
+     * @param outputPath 聚合结果的csv文件路径
+     * @param withHeader 第一行是否为列标题
+     * @param keyColumns 分组的列
+     * @param aggregations 聚合函数
+     * @throws Exception exception
+     */
+    public void aggregate(String inputPath, String outputPath, boolean withHeader, int[] keyColumns,
+                          CsvAggregation... aggregations) throws Exception {
+        if (keyColumns == null || keyColumns.length == 0) {
+            throw new IllegalArgumentException("key columns must not be empty");
+        }
+        Comparator<String[]> comparator = byColumns(keyColumns);
+        List<File> runs = new ArrayList<>();
+        try (CsvRowIterator rows = CsvUtil.iterator(inputPath, true, null);
+             CsvFileWriter writer = new CsvFileWriter(outputPath, false)) {
+            if (withHeader && rows.hasNext()) {
+                writer.writeRow(aggregateHeader(rows.next(), keyColumns, aggregations));
+            }
+            List<String[]> last = spill(rows, comparator, runs);
+            if (last != null) {
+                aggregateSorted(last.iterator(), writer, comparator, keyColumns, aggregations);
+                return;
+            }
+            File merged = mergeRuns(runs, comparator);
+            try (CsvRowIterator sorted = CsvUtil.iterator(merged.getPath(), true, null)) {
+                aggregateSorted(sorted, writer, comparator, keyColumns, aggregations);
+            }
+        } finally {
+            deleteAll(runs);
+        }
+    }
+
+    /**
+     * 按指定列的字符串值比较行，列数不足的行缺少的值按空字符串处理
+     * @param keyColumns 比较的列，靠前的列优先
+     * @return 行的比较器
+     */
+    public static Comparator<String[]> byColumns(int... keyColumns) {
+        if (keyColumns == null || keyColumns.length == 0) {
+            throw new IllegalArgumentException("key columns must not be empty");
+        }
+        int[] columns = keyColumns.clone();
+        return (a, b) -> {
+            for (int column : columns) {
+                int cmp = valueAt(a, column).compareTo(valueAt(b, column));
+                if (cmp != 0) {
+                    return cmp;
+                }
+            }
+            return 0;
+        };
+    }
+
+    private static String valueAt(String[] row, int column) {
+        return column < row.length && row[column] != null ? row[column] : "";
+    }
+
+    /**
+     * 把输入切成有序段写入临时文件
+     * @return 输入不超过一个有序段时返回在内存中排好序的数据，不写临时文件；否则返回null
+     */
+    private List<String[]> spill(CsvRowIterator rows, Comparator<String[]> comparator, List<File> runs) throws Exception {
+        List<String[]> buffer = new ArrayList<>(Math.min(spillRows, 1024));
+        while (rows.hasNext() && buffer.size() < spillRows) {
+            buffer.add(rows.next());
+        }
+        if (! rows.hasNext()) {
+            buffer.sort(comparator);
+            return buffer;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        Deque<Future<?>> inFlight = new ArrayDeque<>();
+        try {
+            while (! buffer.isEmpty()) {
+                File run = createTempFile();
+                runs.add(run);
+                List<String[]> chunk = buffer;
+                inFlight.add(executor.submit(() -> {
+                    chunk.sort(comparator);
+                    writeRun(run, chunk);
+                    return null;
+                }));
+                if (inFlight.size() >= parallelism) {
+                    // 限制同时在内存中的有序段数
+                    await(inFlight.poll());
+                }
+                buffer = new ArrayList<>(Math.min(spillRows, 1024));
+                while (rows.hasNext() && buffer.size() < spillRows) {
+                    buffer.add(rows.next());
+                }
+            }
+            while (! inFlight.isEmpty()) {
+                await(inFlight.poll());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return null;
+    }
+
+    /**
+     * 归并所有有序段，返回最终的有序段；段数超过mergeWidth时分多轮归并，中间结果同样记入runs以便清理
+     */
+    private File mergeRuns(List<File> runs, Comparator<String[]> comparator) throws Exception {
+        List<File> pending = new ArrayList<>(runs);
+        while (pending.size() > 1) {
+            List<File> next = new ArrayList<>();
+            for (int from = 0; from < pending.size(); from += mergeWidth) {
+                List<File> group = pending.subList(from, Math.min(from + mergeWidth, pending.size()));
+                if (group.size() == 1) {
+                    next.add(group.get(0));
+                    continue;
+                }
+                File merged = createTempFile();
+                runs.add(merged);
+                merge(group, merged, comparator);
+                next.add(merged);
+            }
+            pending = next;
+        }
+        return pending.get(0);
+    }
+
+    private void merge(List<File> group, File target, Comparator<String[]> comparator) throws Exception {
+        List<CsvRowIterator> iterators = new ArrayList<>(group.size());
+        // 键相同时按段的先后顺序输出，保证排序稳定
+        PriorityQueue<RunCursor> queue = new PriorityQueue<>(group.size(), (a, b) -> {
+            int cmp = comparator.compare(a.row, b.row);
+            return cmp != 0 ? cmp : Integer.compare(a.index, b.index);
+        });
+        try (CsvFileWriter writer = new CsvFileWriter(target.getPath(), false)) {
+            for (int i = 0; i < group.size(); i++) {
+                CsvRowIterator iterator = CsvUtil.iterator(group.get(i).getPath(), true, null);
+                iterators.add(iterator);
+                if (iterator.hasNext()) {
+                    queue.add(new RunCursor(i, iterator, iterator.next()));
+                }
+            }
+            while (! queue.isEmpty()) {
+                RunCursor cursor = queue.poll();
+                writer.writeRow(cursor.row);
+                if (cursor.iterator.hasNext()) {
+                    cursor.row = cursor.iterator.next();
+                    queue.add(cursor);
+                }
+            }
+        } finally {
+            for (CsvRowIterator iterator : iterators) {
+                iterator.close();
+            }
+        }
+    }
+
+    private static void aggregateSorted(Iterator<String[]> rows, CsvFileWriter writer, Comparator<String[]> comparator,
+                                        int[] keyColumns, CsvAggregation[] aggregations) throws IOException {
+        String[] groupRow = null;
+        CsvAggregation.Accumulator[] accumulators = null;
+        while (rows.hasNext()) {
+            String[] row = rows.next();
+            if (groupRow == null || comparator.compare(groupRow, row) != 0) {
+                if (groupRow != null) {
+                    writer.writeRow(groupResult(groupRow, keyColumns, accumulators));
+                }
+                groupRow = row;
+                accumulators = new CsvAggregation.Accumulator[aggregations.length];
+                for (int i = 0; i < aggregations.length; i++) {
+                    accumulators[i] = aggregations[i].newAccumulator();
+                }
+            }
+            for (CsvAggregation.Accumulator accumulator : accumulators) {
+                accumulator.add(row);
+            }
+        }
+        if (groupRow != null) {
+            writer.writeRow(groupResult(groupRow, keyColumns, accumulators));
+        }
+    }
+
+    private static String[] groupResult(String[] groupRow, int[] keyColumns, CsvAggregation.Accumulator[] accumulators) {
+        String[] result = new String[keyColumns.length + accumulators.length];
+        for (int i = 0; i < keyColumns.length; i++) {
+            result[i] = valueAt(groupRow, keyColumns[i]);
+        }
+        for (int i = 0; i < accumulators.length; i++) {
+            result[keyColumns.length + i] = accumulators[i].result();
+        }
+        return result;
+    }
+
+    private static String[] aggregateHeader(String[] header, int[] keyColumns, CsvAggregation[] aggregations) {
+        String[] result = new String[keyColumns.length + aggregations.length];
+        for (int i = 0; i < keyColumns.length; i++) {
+            result[i] = valueAt(header, keyColumns[i]);
+        }
+        for (int i = 0; i < aggregations.length; i++) {
+            result[keyColumns.length + i] = aggregations[i].title(header);
+        }
+        return result;
+    }
+
+    private static void writeRun(File run, List<String[]> rows) throws IOException {
+        try (CsvFileWriter writer = new CsvFileWriter(run.getPath(), false)) {
+            writer.writeRows(rows.iterator());
+        }
+    }
+
+    private File createTempFile() throws IOException {
+        File file = File.createTempFile("csv-sort-", ".csv", tempDir);
+        file.deleteOnExit();
+        return file;
+    }
+
+    private static void await(Future<?> future) throws Exception {
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+    }
+
+    private static void deleteAll(List<File> files) {
+        for (File file : files) {
+            file.delete();
+        }
+    }
+
+    private static final class RunCursor {
+        private final int index;
+        private final CsvRowIterator iterator;
+        private String[] row;
+
+        private RunCursor(int index, CsvRowIterator iterator, String[] row) {
+            this.index = index;
+            this.iterator = iterator;
+            this.row = row;
+        }
+    }
+}
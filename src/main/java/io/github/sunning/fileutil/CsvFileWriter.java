@@ -0,0 +1,304 @@
+package io.github.sunning.fileutil;
+
+import com.google.common.base.Charsets;
+
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 长时间持有的csv写入会话，可以持续追加任意多行数据而不需要先把数据放进List
+ * 数据先写入一个较大的缓冲区，写满后一次性写入FileChannel；UTF-8编码时直接按字节编码，不经过CharsetEncoder
+ * 转义规则与CsvUtil的读取规则一致，写出的文件可以被CsvUtil原样读回
+ * 文件名以.gz结尾时以gzip格式边写边压缩
+ * 非线程安全，使用完毕后需要close
+ **/
+
+public class CsvFileWriter implements Closeable, Flushable {
+
+    /**
+     * 默认的缓冲区大小
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private static final String GZIP_SUFFIX = ".gz";
+
+    private final WritableByteChannel channel;
+    private final boolean utf8;
+    private final CharsetEncoder encoder;
+    private final byte[] bytes;
+    private int position;
+    /** 非UTF-8编码时先暂存字符，再批量编码 */
+    private final char[] pending;
+    private int pendingLength;
+    /** UTF-8编码时等待与低代理项合并的高代理项 */
+    private char highSurrogate;
+    private boolean closed;
+
+    /**
+     * 以UTF-8编码写入csv文件
+     * @param filePath 写入的csv文件的指定路径，以.gz结尾时以gzip格式压缩写入
+     * @param append 是否以追加的方式写入（追加：append为true, 覆盖：append为false）
+     * @throws IOException exception
+     */
+    public CsvFileWriter(String filePath, boolean append) throws IOException {
+        this(filePath, append, Charsets.UTF_8, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param filePath 写入的csv文件的指定路径，以.gz结尾时以gzip格式压缩写入
+     * @param append 是否以追加的方式写入（追加：append为true, 覆盖：append为false）
+     * @param charset csv文件的编码
+     * @param bufferSize 缓冲区的字节数，缓冲区写满后才会写入文件
+     * @throws IOException exception
+     */
+    public CsvFileWriter(String filePath, boolean append, Charset charset, int bufferSize) throws IOException {
+        this(openChannel(filePath, append, bufferSize), charset, bufferSize);
+    }
+
+    CsvFileWriter(WritableByteChannel channel, Charset charset, int bufferSize) {
+        if (bufferSize < 16) {
+            throw new IllegalArgumentException("bufferSize is too small: " + bufferSize);
+        }
+        this.channel = channel;
+        this.utf8 = Charsets.UTF_8.equals(charset);
+        this.encoder = utf8 ? null : charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.bytes = new byte[bufferSize];
+        this.pending = utf8 ? null : new char[Math.max(16, bufferSize / 4)];
+    }
+
+    private static WritableByteChannel openChannel(String filePath, boolean append, int bufferSize) throws IOException {
+        if (filePath.endsWith(GZIP_SUFFIX)) {
+            // 追加写入时会在文件末尾新增一个gzip成员，GZIPInputStream可以连续读取多个成员
+            return Channels.newChannel(new GZIPOutputStream(new FileOutputStream(filePath, append), bufferSize));
+        }
+        return FileChannel.open(Paths.get(filePath), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * 写入一行，null按空字段处理
+     * @param values 一行的所有字段
+     * @throws IOException exception
+     */
+    public void writeRow(String... values) throws IOException {
+        ensureOpen();
+        if (values.length == 1 && (values[0] == null || values[0].isEmpty())) {
+            // 只有一个空字段时写成""，否则读取时会被当成空行跳过
+            writeChar('"');
+            writeChar('"');
+        } else {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writeChar(',');
+                }
+                writeField(values[i]);
+            }
+        }
+        writeRaw(LINE_SEPARATOR);
+    }
+
+    /**
+     * 写入迭代器中的所有行
+     * @param rows 行迭代器
+     * @throws IOException exception
+     */
+    public void writeRows(Iterator<String[]> rows) throws IOException {
+        while (rows.hasNext()) {
+            writeRow(rows.next());
+        }
+    }
+
+    /**
+     * 写入Stream中的所有行，Stream按顺序消费
+     * @param rows 行数据的Stream
+     * @throws IOException exception
+     */
+    public void writeRows(Stream<String[]> rows) throws IOException {
+        writeRows(rows.iterator());
+    }
+
+    /**
+     * 把JavaBean逐个转换成行后写入
+     * @param beans JavaBean迭代器
+     * @param mapper JavaBean转换成一行数据的方法
+     * @param <T> 具体类型
+     * @throws IOException exception
+     */
+    public <T> void writeBeans(Iterator<T> beans, Function<? super T, String[]> mapper) throws IOException {
+        while (beans.hasNext()) {
+            writeRow(mapper.apply(beans.next()));
+        }
+    }
+
+    /**
+     * 把缓冲区中的数据写入文件
+     * @throws IOException exception
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        if (highSurrogate != 0) {
+            highSurrogate = 0;
+            writeChar('?');
+        }
+        encodePending(true);
+        drain();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            closed = true;
+            channel.close();
+        }
+    }
+
+    private void writeField(String value) throws IOException {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        if (! needQuote(value)) {
+            writeRaw(value);
+            return;
+        }
+        writeChar('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writeChar('"');
+            }
+            writeChar(c);
+        }
+        writeChar('"');
+    }
+
+    private static boolean needQuote(String value) {
+        char first = value.charAt(0);
+        char last = value.charAt(value.length() - 1);
+        if (first == ' ' || first == '\t' || last == ' ' || last == '\t') {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\r' || c == '\n') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeRaw(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            writeChar(value.charAt(i));
+        }
+    }
+
+    private void writeChar(char c) throws IOException {
+        if (! utf8) {
+            if (pendingLength == pending.length) {
+                encodePending(false);
+            }
+            pending[pendingLength++] = c;
+            return;
+        }
+        if (bytes.length - position < 4) {
+            drain();
+        }
+        if (highSurrogate != 0) {
+            char high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                int codePoint = Character.toCodePoint(high, c);
+                bytes[position++] = (byte) (0xF0 | (codePoint >> 18));
+                bytes[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                bytes[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                bytes[position++] = (byte) (0x80 | (codePoint & 0x3F));
+                return;
+            }
+            bytes[position++] = '?';
+            writeChar(c);
+            return;
+        }
+        if (c < 0x80) {
+            bytes[position++] = (byte) c;
+        } else if (c < 0x800) {
+            bytes[position++] = (byte) (0xC0 | (c >> 6));
+            bytes[position++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            bytes[position++] = '?';
+        } else {
+            bytes[position++] = (byte) (0xE0 | (c >> 12));
+            bytes[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            bytes[position++] = (byte) (0x80 | (c & 0x3F));
+        }
+    }
+
+    /**
+     * 把暂存的字符编码进字节缓冲区
+     * @param endOfInput 为true时不再等待被拆开的代理项对，不完整的字符会被替换
+     */
+    private void encodePending(boolean endOfInput) throws IOException {
+        if (utf8 || pendingLength == 0) {
+            return;
+        }
+        CharBuffer in = CharBuffer.wrap(pending, 0, pendingLength);
+        ByteBuffer out = ByteBuffer.wrap(bytes, position, bytes.length - position);
+        while (true) {
+            CoderResult result = encoder.encode(in, out, endOfInput);
+            position = out.position();
+            if (! result.isOverflow()) {
+                break;
+            }
+            drain();
+            out = ByteBuffer.wrap(bytes, 0, bytes.length);
+        }
+        if (endOfInput) {
+            encoder.reset();
+        }
+        int remaining = in.remaining();
+        System.arraycopy(pending, in.position(), pending, 0, remaining);
+        pendingLength = remaining;
+    }
+
+    private void drain() throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, position);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        position = 0;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("csv writer is closed");
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package io.github.sunning.fileutil;
+
+/**
+ * 与java.util.concurrent.Flow（JDK 9+）、Reactive Streams方法签名一致的接口
+ * 项目以Java 8编译，无法直接使用Flow，需要时可以用几行代码适配到Flow或者Reactive Streams的实现
+ **/
+
+public final class CsvFlow {
+
+    private CsvFlow() {
+    }
+
+    /**
+     * 数据的发布者
+     * @param <T> 数据类型
+     */
+    public interface Publisher<T> {
+        void subscribe(Subscriber<? super T> subscriber);
+    }
+
+    /**
+     * 数据的订阅者，onNext的次数不会超过通过Subscription.request请求的数量
+     * @param <T> 数据类型
+     */
+    public interface Subscriber<T> {
+        void onSubscribe(Subscription subscription);
+
+        void onNext(T item);
+
+        void onError(Throwable throwable);
+
+        void onComplete();
+    }
+
+    /**
+     * 订阅关系，订阅者通过它请求数据或者取消订阅
+     */
+    public interface Subscription {
+        /**
+         * 再请求n条数据，n必须大于0
+         */
+        void request(long n);
+
+        void cancel();
+    }
+}
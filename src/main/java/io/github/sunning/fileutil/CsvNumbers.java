@@ -0,0 +1,88 @@
+package io.github.sunning.fileutil;
+
+/**
+ * 直接从char数组中解析数字，常见格式下不需要先创建String
+ * 遇到快速路径处理不了的格式（科学计数法、超长数字等）时退回JDK的解析方法，结果保持一致
+ **/
+
+final class CsvNumbers {
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /** 2^53，不超过该值的long可以被double精确表示 */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private CsvNumbers() {
+    }
+
+    static int parseInt(char[] chars, int offset, int length) {
+        long value = parseLong(chars, offset, length);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("For input string: \"" + new String(chars, offset, length) + "\"");
+        }
+        return (int) value;
+    }
+
+    static long parseLong(char[] chars, int offset, int length) {
+        int i = offset;
+        int end = offset + length;
+        boolean negative = false;
+        if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+            negative = chars[i] == '-';
+            i++;
+        }
+        // 18位以内的十进制数不会溢出long
+        if (i == end || end - i > 18) {
+            return Long.parseLong(new String(chars, offset, length));
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = chars[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("For input string: \"" + new String(chars, offset, length) + "\"");
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    static double parseDouble(char[] chars, int offset, int length) {
+        int i = offset;
+        int end = offset + length;
+        boolean negative = false;
+        if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+            negative = chars[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean dot = false;
+        for (; i < end; i++) {
+            char c = chars[i];
+            if (c == '.' && ! dot) {
+                dot = true;
+            } else if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (dot) {
+                    scale++;
+                }
+                if (digits > 18) {
+                    break;
+                }
+            } else {
+                break;
+            }
+        }
+        // 尾数和10的幂都能被double精确表示时，一次除法的结果就是正确舍入的
+        if (i != end || digits == 0 || mantissa > MAX_EXACT_MANTISSA || scale >= POWERS_OF_TEN.length) {
+            return Double.parseDouble(new String(chars, offset, length));
+        }
+        double value = mantissa / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+}
@@ -0,0 +1,186 @@
+package io.github.sunning.fileutil;
+
+import com.google.common.base.Charsets;
+
+import java.io.FileInputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按订阅者的请求逐行解析csv文件的发布者，只有订阅者请求了数据才会继续解析，内存占用与请求的数量有关而与文件大小无关
+ * 每次subscribe都会从头读取文件；onSubscribe在subscribe的线程回调，其余回调在executor中串行执行
+ **/
+
+public class CsvPublisher implements CsvFlow.Publisher<String[]> {
+
+    private final String filePath;
+    private final Charset charset;
+    private final boolean needHeader;
+    private final int[] columns;
+    private final CsvRowFilter filter;
+    private final Executor executor;
+
+    /**
+     * @param filePath csv文件的路径
+     * @param needHeader 是否需要列标题（假设第一行是有标题的，如果没有该参数请传true）
+     * @param columns 指定读取csv文件的哪几列，如果为null，则读取全部列
+     */
+    public CsvPublisher(String filePath, boolean needHeader, int[] columns) {
+        this(filePath, Charsets.UTF_8, needHeader, columns, null, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param filePath csv文件的路径
+     * @param charset csv文件的编码
+     * @param needHeader 是否需要列标题（假设第一行是有标题的，如果没有该参数请传true）
+     * @param columns 指定读取csv文件的哪几列，如果为null，则读取全部列
+     * @param filter 行过滤条件，如果为null，则不过滤
+     * @param executor 解析和回调订阅者的线程池
+     */
+    public CsvPublisher(String filePath, Charset charset, boolean needHeader, int[] columns,
+                        CsvRowFilter filter, Executor executor) {
+        this.filePath = filePath;
+        this.charset = charset;
+        this.needHeader = needHeader;
+        this.columns = columns;
+        this.filter = filter;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(CsvFlow.Subscriber<? super String[]> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber");
+        }
+        RowSubscription subscription = new RowSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+    }
+
+    private final class RowSubscription implements CsvFlow.Subscription, Runnable {
+        private final CsvFlow.Subscriber<? super String[]> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        /** 大于0时已经有任务在executor中执行，新的请求只累加计数，由该任务继续处理 */
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile Throwable invalidRequest;
+        private CsvRowIterator iterator;
+        private boolean done;
+
+        private RowSubscription(CsvFlow.Subscriber<? super String[]> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("request count must be positive: " + n);
+            } else {
+                long current;
+                long next;
+                do {
+                    current = demand.get();
+                    next = current + n < 0 ? Long.MAX_VALUE : current + n;
+                } while (! demand.compareAndSet(current, next));
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (wip.getAndIncrement() == 0) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            boolean normal = false;
+            try {
+                do {
+                    drain();
+                    missed = wip.addAndGet(-missed);
+                } while (missed != 0);
+                normal = true;
+            } finally {
+                if (! normal) {
+                    // 只有结束信号的回调会抛出到这里，此时订阅已经结束，不会再有任务需要执行
+                    wip.set(0);
+                }
+            }
+        }
+
+        private void drain() {
+            if (done) {
+                return;
+            }
+            if (cancelled) {
+                finish();
+                return;
+            }
+            if (invalidRequest != null) {
+                finish();
+                subscriber.onError(invalidRequest);
+                return;
+            }
+            boolean complete = false;
+            Throwable error = null;
+            try {
+                if (iterator == null) {
+                    iterator = CsvUtil.iterator(new FileInputStream(filePath), charset, needHeader, columns, filter);
+                }
+                long requested = demand.get();
+                long emitted = 0;
+                while (emitted != requested && ! cancelled) {
+                    if (! iterator.hasNext()) {
+                        complete = true;
+                        break;
+                    }
+                    subscriber.onNext(iterator.next());
+                    emitted++;
+                }
+                // 请求数量恰好等于剩余行数时也要发出结束信号，不能等到下一次request
+                if (emitted == requested && ! cancelled && ! iterator.hasNext()) {
+                    complete = true;
+                }
+                if (requested != Long.MAX_VALUE) {
+                    demand.addAndGet(-emitted);
+                }
+            } catch (Throwable e) {
+                // 解析失败或者订阅者的回调抛出异常时都结束订阅
+                error = e;
+            }
+            // 结束信号在try之外发出，onComplete抛出异常时不会再发出onError
+            if (error != null) {
+                finish();
+                subscriber.onError(error);
+            } else if (complete) {
+                finish();
+                subscriber.onComplete();
+            } else if (cancelled) {
+                finish();
+            }
+        }
+
+        private void finish() {
+            done = true;
+            cancelled = true;
+            if (iterator != null) {
+                try {
+                    iterator.close();
+                } catch (UncheckedIOException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package io.github.sunning.fileutil;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 在原始字节上查找csv记录边界（不在引号内的换行符），不做任何解码
+ * 状态会在多次调用之间保留，因此可以分段喂入同一个文件的连续字节
+ * 只适用于逗号、双引号、换行都是单字节的编码，如UTF-8、GBK
+ **/
+
+final class CsvRecordScanner {
+
+    private static final int FIELD_START = 0;
+    private static final int UNQUOTED = 1;
+    private static final int QUOTED = 2;
+    private static final int QUOTE_SEEN = 3;
+
+    private int state = FIELD_START;
+
+    /**
+     * 扫描[from, to)之间的字节，只更新状态
+     */
+    void feed(ByteBuffer buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            state = next(state, buffer.get(i));
+        }
+    }
+
+    /**
+     * 从from开始查找下一个记录边界
+     * @return 边界之后第一个字节的位置，[from, to)之间没有边界时返回-1
+     */
+    int nextBoundary(ByteBuffer buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte b = buffer.get(i);
+            state = next(state, b);
+            if ((b == '\n' || b == '\r') && state == FIELD_START) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static int next(int state, byte b) {
+        switch (state) {
+            case QUOTED:
+                return b == '"' ? QUOTE_SEEN : QUOTED;
+            case QUOTE_SEEN:
+                if (b == '"') {
+                    return QUOTED;
+                }
+                return b == ',' || b == '\n' || b == '\r' ? FIELD_START : UNQUOTED;
+            case UNQUOTED:
+                return b == ',' || b == '\n' || b == '\r' ? FIELD_START : UNQUOTED;
+            default:
+                if (b == '"') {
+                    return QUOTED;
+                }
+                return b == ',' || b == '\n' || b == '\r' || b == ' ' || b == '\t' ? FIELD_START : UNQUOTED;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package io.github.sunning.fileutil;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * 在解析csv时过滤行的条件
+ * 条件只作用于指定的几列，这几列解析完成后立即判断，被过滤掉的行剩余的字段直接跳过，整行都不会创建结果
+ **/
+
+public final class CsvRowFilter {
+
+    /** and组合的各个条件，解析时分别在各自用到的最后一列解析完成后判断 */
+    private final Term[] terms;
+
+    private CsvRowFilter(Term[] terms) {
+        this.terms = terms;
+    }
+
+    /**
+     * @param predicate 过滤条件，参数为columns对应的字段值（与columns顺序一致），记录的列数不足时缺少的值为null；
+     *                  参数数组在解析时会被复用，不能在条件之外保存
+     * @param columns 条件用到的列，与CsvUtil.read的columns参数无关，下标都是相对原始文件的
+     * @return 过滤条件
+     */
+    public static CsvRowFilter of(Predicate<String[]> predicate, int... columns) {
+        return new CsvRowFilter(new Term[]{new Term(columns, predicate)});
+    }
+
+    /**
+     * 指定列的值在values中时保留该行
+     * @param column 列下标
+     * @param values 需要保留的值
+     * @return 过滤条件
+     */
+    public static CsvRowFilter in(int column, String... values) {
+        Set<String> set = new HashSet<>(Arrays.asList(values));
+        return of(v -> set.contains(v[0]), column);
+    }
+
+    /**
+     * 同时满足两个条件时保留该行
+     * 两个条件各自在用到的列解析完成后立即判断，任一条件不满足时跳过该行剩余的字段，所以条件不应该有副作用
+     * @param other 另一个条件
+     * @return 组合后的过滤条件
+     */
+    public CsvRowFilter and(CsvRowFilter other) {
+        Term[] merged = Arrays.copyOf(terms, terms.length + other.terms.length);
+        System.arraycopy(other.terms, 0, merged, terms.length, other.terms.length);
+        return new CsvRowFilter(merged);
+    }
+
+    Term[] getTerms() {
+        return terms;
+    }
+
+    /**
+     * 单个条件
+     */
+    static final class Term {
+        final int[] columns;
+        final Predicate<String[]> predicate;
+        /** 条件用到的最后一列 */
+        final int maxColumn;
+
+        private Term(int[] columns, Predicate<String[]> predicate) {
+            if (columns == null || columns.length == 0) {
+                throw new IllegalArgumentException("filter columns must not be empty");
+            }
+            int max = -1;
+            for (int column : columns) {
+                if (column < 0) {
+                    throw new IllegalArgumentException("column index must not be negative: " + column);
+                }
+                max = Math.max(max, column);
+            }
+            this.columns = columns.clone();
+            this.predicate = predicate;
+            this.maxColumn = max;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package io.github.sunning.fileutil;
+
+import org.apache.commons.lang3.ArrayUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 逐行读取csv文件的迭代器，内存占用与文件大小无关
+ * 使用完毕后需要调用close()释放底层的文件流，推荐使用try-with-resources
+ **/
+
+public class CsvRowIterator implements Iterator<String[]>, Closeable {
+
+    private final Reader reader;
+    private final CsvTokenizer tokenizer;
+    private String[] next;
+    private boolean finished;
+
+    /**
+     * @param inputStream stream
+     * @param charset csv文件的编码
+     * @param needHeader 是否需要列标题（假设第一行是有标题的，如果没有该参数请传true）
+     * @param columns 指定读取csv文件的哪几列，如果为null，则读取全部列
+     * @param filter 行过滤条件，如果为null，则不过滤
+     * @throws IOException exception
+     */
+    CsvRowIterator(InputStream inputStream, Charset charset, boolean needHeader, int[] columns,
+                   CsvRowFilter filter) throws IOException {
+        this.reader = new InputStreamReader(inputStream, charset);
+        this.tokenizer = new CsvTokenizer(reader);
+        try {
+            tokenizer.setColumns(ArrayUtils.isEmpty(columns) ? null : columns);
+            tokenizer.setFilter(filter);
+            if (! needHeader) {
+                tokenizer.skipRecord();
+            }
+        } catch (IOException | RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        if (finished) {
+            return false;
+        }
+        try {
+            next = tokenizer.readRecord();
+            finished = next == null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return next != null;
+    }
+
+    @Override
+    public String[] next() {
+        if (! hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String[] row = next;
+        next = null;
+        return row;
+    }
+
+    @Override
+    public void close() {
+        finished = true;
+        next = null;
+        try {
+            reader.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package io.github.sunning.fileutil;
+
+import com.google.common.base.Charsets;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * csv文件每一列的数据类型，可以通过抽样推断，也可以手动指定
+ * 按schema读取时数值、布尔、日期列直接从字段的字符中解析成基本类型，不创建String和包装类
+ **/
+
+public final class CsvSchema {
+
+    /**
+     * 推断类型时默认抽样的行数
+     */
+    public static final int DEFAULT_SAMPLE_ROWS = 1000;
+
+    /** double可以精确还原的十进制有效数字位数 */
+    private static final int MAX_DOUBLE_DIGITS = 15;
+
+    private final String[] header;
+    private final CsvColumnType[] types;
+
+    private CsvSchema(String[] header, CsvColumnType[] types) {
+        this.header = header;
+        this.types = types;
+    }
+
+    /**
+     * 手动指定每一列的类型
+     * @param types 列的类型
+     * @return schema
+     */
+    public static CsvSchema of(CsvColumnType... types) {
+        return new CsvSchema(null, types.clone());
+    }
+
+    /**
+     * 以UTF-8编码读取文件的前sampleRows行推断每一列的类型
+     * @param filePath csv文件的路径
+     * @param withHeader 第一行是否为列标题
+     * @param sampleRows 抽样的行数
+     * @return 推断出的schema
+     * @throws Exception exception
+     */
+    public static CsvSchema infer(String filePath, boolean withHeader, int sampleRows) throws Exception {
+        return infer(new FileInputStream(filePath), Charsets.UTF_8, withHeader, sampleRows, null);
+    }
+
+    /**
+     * 抽样推断每一列的类型
+     * @param inputStream stream，读取完毕后会被关闭
+     * @param charset csv文件的编码
+     * @param withHeader 第一行是否为列标题
+     * @param sampleRows 抽样的行数
+     * @param random 为null时只读取前sampleRows行；不为null时读取整个文件，用蓄水池抽样均匀地选出sampleRows行，适合前几行不具代表性的文件
+     * @return 推断出的schema
+     * @throws Exception exception
+     */
+    public static CsvSchema infer(InputStream inputStream, Charset charset, boolean withHeader, int sampleRows,
+                                  Random random) throws Exception {
+        if (sampleRows <= 0) {
+            throw new IllegalArgumentException("sampleRows must be positive: " + sampleRows);
+        }
+        try (Reader reader = new InputStreamReader(CsvUtil.decompressIfGzip(inputStream), charset)) {
+            CsvTokenizer tokenizer = new CsvTokenizer(reader);
+            String[] header = withHeader ? tokenizer.readRecord() : null;
+            TypeTracker tracker = new TypeTracker();
+            if (random == null) {
+                for (int i = 0; i < sampleRows && tokenizer.readRecord(tracker); i++) {
+                    // 字段直接交给tracker判断，不创建String
+                }
+            } else {
+                for (String[] row : reservoir(tokenizer, sampleRows, random)) {
+                    for (int i = 0; i < row.length; i++) {
+                        char[] chars = row[i].toCharArray();
+                        tracker.field(i, chars, chars.length);
+                    }
+                }
+            }
+            int width = Math.max(tracker.width(), header == null ? 0 : header.length);
+            CsvColumnType[] types = new CsvColumnType[width];
+            for (int i = 0; i < width; i++) {
+                types[i] = tracker.type(i);
+            }
+            return new CsvSchema(header, types);
+        }
+    }
+
+    /**
+     * 按schema逐行读取csv文件，超出schema列数的列会被忽略
+     * @param filePath csv文件的路径
+     * @param withHeader 第一行是否为列标题，为true时跳过第一行
+     * @param consumer 每一行数据的回调，同一个CsvTypedRow对象会被重复使用
+     * @throws Exception exception
+     */
+    public void read(String filePath, boolean withHeader, Consumer<CsvTypedRow> consumer) throws Exception {
+        read(new FileInputStream(filePath), Charsets.UTF_8, withHeader, consumer);
+    }
+
+    /**
+     * 按schema逐行读取csv文件，超出schema列数的列会被忽略
+     * @param inputStream stream，读取完毕后会被关闭
+     * @param charset csv文件的编码
+     * @param withHeader 第一行是否为列标题，为true时跳过第一行
+     * @param consumer 每一行数据的回调，同一个CsvTypedRow对象会被重复使用
+     * @throws Exception exception
+     */
+    public void read(InputStream inputStream, Charset charset, boolean withHeader, Consumer<CsvTypedRow> consumer) throws Exception {
+        try (Reader reader = new InputStreamReader(CsvUtil.decompressIfGzip(inputStream), charset)) {
+            CsvTokenizer tokenizer = new CsvTokenizer(reader);
+            if (withHeader) {
+                tokenizer.skipRecord();
+            }
+            int[] columns = new int[types.length];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = i;
+            }
+            tokenizer.setColumns(columns);
+            CsvTypedRow row = new CsvTypedRow(types);
+            CsvTokenizer.FieldHandler handler = row::set;
+            while (true) {
+                row.reset();
+                if (! tokenizer.readRecord(handler)) {
+                    break;
+                }
+                consumer.accept(row);
+            }
+        }
+    }
+
+    /**
+     * @return 推断时的列标题，没有标题或者手动指定的schema返回null
+     */
+    public String[] getHeader() {
+        return header == null ? null : header.clone();
+    }
+
+    public int getColumnCount() {
+        return types.length;
+    }
+
+    public CsvColumnType getType(int column) {
+        return types[column];
+    }
+
+    public CsvColumnType[] getTypes() {
+        return types.clone();
+    }
+
+    @Override
+    public String toString() {
+        return "CsvSchema{header=" + Arrays.toString(header) + ", types=" + Arrays.toString(types) + "}";
+    }
+
+    private static List<String[]> reservoir(CsvTokenizer tokenizer, int sampleRows, Random random) throws IOException {
+        List<String[]> sample = new ArrayList<>(Math.min(sampleRows, 1024));
+        long seen = 0;
+        String[] row;
+        while ((row = tokenizer.readRecord()) != null) {
+            seen++;
+            if (sample.size() < sampleRows) {
+                sample.add(row);
+            } else {
+                long slot = (long) (random.nextDouble() * seen);
+                if (slot < sampleRows) {
+                    sample.set((int) slot, row);
+                }
+            }
+        }
+        return sample;
+    }
+
+    static boolean parseBoolean(char[] chars, int length) {
+        if (equalsIgnoreCase("true", chars, length)) {
+            return true;
+        }
+        if (equalsIgnoreCase("false", chars, length)) {
+            return false;
+        }
+        throw new IllegalArgumentException("not a boolean");
+    }
+
+    /**
+     * 解析yyyy-MM-dd
+     */
+    static LocalDate parseDate(char[] chars, int length) {
+        if (length != 10 || chars[4] != '-' || chars[7] != '-') {
+            throw new IllegalArgumentException("not a date");
+        }
+        return LocalDate.of(digits(chars, 0, 4), digits(chars, 5, 2), digits(chars, 8, 2));
+    }
+
+    /**
+     * 解析yyyy-MM-dd HH:mm:ss，时间部分可以省略
+     */
+    static LocalDateTime parseDateTime(char[] chars, int length) {
+        if (length == 10) {
+            return parseDate(chars, length).atStartOfDay();
+        }
+        if (length != 19 || chars[10] != ' ' || chars[13] != ':' || chars[16] != ':') {
+            throw new IllegalArgumentException("not a datetime");
+        }
+        return parseDate(chars, 10).atTime(digits(chars, 11, 2), digits(chars, 14, 2), digits(chars, 17, 2));
+    }
+
+    static String formatDateTime(LocalDateTime value) {
+        return value.toLocalDate() + " " + String.format("%02d:%02d:%02d", value.getHour(), value.getMinute(), value.getSecond());
+    }
+
+    private static int digits(char[] chars, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            int digit = chars[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("not a digit");
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static boolean equalsIgnoreCase(String expected, char[] chars, int length) {
+        if (expected.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (Character.toLowerCase(chars[i]) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 记录每一列还可能是哪些类型，每个非空值排除不能表示它的类型
+     */
+    private static final class TypeTracker implements CsvTokenizer.FieldHandler {
+        private static final int ALL = (1 << CsvColumnType.STRING.ordinal()) - 1;
+        /** 每一列可能的类型，按CsvColumnType的ordinal存成位；-1表示还没有遇到非空值 */
+        private int[] masks = new int[0];
+
+        @Override
+        public void field(int column, char[] chars, int length) {
+            if (column >= masks.length) {
+                int from = masks.length;
+                masks = Arrays.copyOf(masks, column + 1);
+                Arrays.fill(masks, from, masks.length, -1);
+            }
+            if (length == 0) {
+                return;
+            }
+            int mask = masks[column] == -1 ? ALL : masks[column];
+            if (mask != 0) {
+                masks[column] = mask & matches(chars, length, mask);
+            }
+        }
+
+        int width() {
+            return masks.length;
+        }
+
+        CsvColumnType type(int column) {
+            int mask = column < masks.length ? masks[column] : -1;
+            if (mask == -1 || mask == 0) {
+                return CsvColumnType.STRING;
+            }
+            return CsvColumnType.values()[Integer.numberOfTrailingZeros(mask)];
+        }
+
+        /**
+         * @return 在候选类型中能表示该值的类型
+         */
+        private static int matches(char[] chars, int length, int candidates) {
+            int result = 0;
+            if (has(candidates, CsvColumnType.BOOLEAN)
+                    && (equalsIgnoreCase("true", chars, length) || equalsIgnoreCase("false", chars, length))) {
+                result |= bit(CsvColumnType.BOOLEAN);
+            }
+            if (has(candidates, CsvColumnType.DATE) || has(candidates, CsvColumnType.DATETIME)) {
+                try {
+                    parseDateTime(chars, length);
+                    result |= bit(CsvColumnType.DATETIME);
+                    if (length == 10) {
+                        result |= bit(CsvColumnType.DATE);
+                    }
+                } catch (RuntimeException e) {
+                    // not a date
+                }
+            }
+            int numeric = bit(CsvColumnType.INT) | bit(CsvColumnType.LONG) | bit(CsvColumnType.DOUBLE) | bit(CsvColumnType.DECIMAL);
+            if ((candidates & numeric) != 0) {
+                result |= matchNumber(chars, length);
+            }
+            return result;
+        }
+
+        private static int matchNumber(char[] chars, int length) {
+            int i = chars[0] == '-' || chars[0] == '+' ? 1 : 0;
+            int integerDigits = 0;
+            int fractionDigits = 0;
+            int leadingZeros = 0;
+            boolean dot = false;
+            for (; i < length; i++) {
+                char c = chars[i];
+                if (c >= '0' && c <= '9') {
+                    if (dot) {
+                        fractionDigits++;
+                    } else {
+                        if (c == '0' && integerDigits == leadingZeros) {
+                            leadingZeros++;
+                        }
+                        integerDigits++;
+                    }
+                } else if (c == '.' && ! dot) {
+                    dot = true;
+                } else {
+                    break;
+                }
+            }
+            if (i < length) {
+                // 科学计数法等其他格式只能按double处理
+                try {
+                    Double.parseDouble(new String(chars, 0, length));
+                    return bit(CsvColumnType.DOUBLE);
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+            if (integerDigits + fractionDigits == 0) {
+                return 0;
+            }
+            int result = bit(CsvColumnType.DECIMAL);
+            if (integerDigits - leadingZeros + fractionDigits <= MAX_DOUBLE_DIGITS) {
+                result |= bit(CsvColumnType.DOUBLE);
+            }
+            if (! dot && integerDigits > 0) {
+                try {
+                    long value = CsvNumbers.parseLong(chars, 0, length);
+                    result |= bit(CsvColumnType.LONG);
+                    if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+                        result |= bit(CsvColumnType.INT);
+                    }
+                } catch (NumberFormatException e) {
+                    // 超出long的范围
+                }
+            }
+            return result;
+        }
+
+        private static boolean has(int mask, CsvColumnType type) {
+            return (mask & bit(type)) != 0;
+        }
+
+        private static int bit(CsvColumnType type) {
+            return 1 << type.ordinal();
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package io.github.sunning.fileutil;
+
+import com.google.common.base.Charsets;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * 持续追加的csv文件的增量读取器，每次poll只解析上次之后新追加的完整记录
+ * 已处理到的字节偏移量保存在检查点文件中，进程重启后从检查点继续读取
+ * 文件末尾没有换行符的记录视为还没写完，等换行符写入后的下一次poll再读取
+ * 文件变短或者文件开头的内容变化时（如被截断、被轮转成新文件），从头重新读取
+ * 非线程安全；只适用于逗号、双引号、换行都是单字节的编码，如UTF-8、GBK
+ **/
+
+public class CsvTailReader {
+
+    private static final byte[] ASCII_SYMBOLS = {',', '"', '\r', '\n'};
+
+    /** 用来判断文件是否被替换的文件头字节数 */
+    private static final int HEAD_SIZE = 1024;
+
+    private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+
+    private static final String OFFSET_KEY = "offset";
+    private static final String HEAD_LENGTH_KEY = "headLength";
+    private static final String HEAD_CRC_KEY = "headCrc";
+
+    private final File file;
+    private final File checkpoint;
+    private final Charset charset;
+    private final boolean withHeader;
+
+    private long offset;
+    private int headLength;
+    private long headCrc;
+    private String[] header;
+
+    /**
+     * 以UTF-8编码读取，第一行不是列标题
+     * @param filePath csv文件的路径
+     * @param checkpointPath 检查点文件的路径，不存在时从文件开头读取
+     * @throws IOException exception
+     */
+    public CsvTailReader(String filePath, String checkpointPath) throws IOException {
+        this(filePath, checkpointPath, Charsets.UTF_8, false);
+    }
+
+    /**
+     * @param filePath csv文件的路径
+     * @param checkpointPath 检查点文件的路径，不存在时从文件开头读取
+     * @param charset csv文件的编码
+     * @param withHeader 第一行是否为列标题，为true时标题行不会交给poll的回调，可以通过getHeader获取
+     * @throws IOException exception
+     */
+    public CsvTailReader(String filePath, String checkpointPath, Charset charset, boolean withHeader) throws IOException {
+        if (! Arrays.equals(ASCII_SYMBOLS, new String(ASCII_SYMBOLS, Charsets.US_ASCII).getBytes(charset))) {
+            throw new IllegalArgumentException("charset must be ascii compatible: " + charset);
+        }
+        this.file = new File(filePath);
+        this.checkpoint = new File(checkpointPath);
+        this.charset = charset;
+        this.withHeader = withHeader;
+        loadCheckpoint();
+    }
+
+    /**
+     * 解析上次之后新追加的完整记录，全部交给consumer处理后把新的偏移量写入检查点
+     * consumer抛出异常时检查点不变，下次poll会重新读取这一批记录
+     * @param consumer 每一行数据的回调
+     * @return 本次读取的记录数
+     * @throws IOException exception
+     */
+    public int poll(Consumer<String[]> consumer) throws IOException {
+        if (! file.isFile()) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < offset || headCrc != crc(channel, headLength)) {
+                // 文件被截断或替换
+                offset = 0;
+                header = null;
+            }
+            long end = lastBoundary(channel, offset, size);
+            if (end < 0) {
+                return 0;
+            }
+            int count = 0;
+            try (Reader reader = new InputStreamReader(new RangeInputStream(channel, offset, end), charset)) {
+                CsvTokenizer tokenizer = new CsvTokenizer(reader);
+                if (withHeader && offset == 0) {
+                    header = tokenizer.readRecord();
+                }
+                String[] row;
+                while ((row = tokenizer.readRecord()) != null) {
+                    consumer.accept(row);
+                    count++;
+                }
+            }
+            offset = end;
+            headLength = (int) Math.min(HEAD_SIZE, end);
+            headCrc = crc(channel, headLength);
+            saveCheckpoint();
+            return count;
+        }
+    }
+
+    /**
+     * @return 已经处理并写入检查点的字节偏移量
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return 列标题，withHeader为false或者还没有读到标题行时返回null
+     * @throws IOException exception
+     */
+    public String[] getHeader() throws IOException {
+        if (header == null && withHeader && offset > 0 && file.isFile()) {
+            // 从检查点恢复时标题行已经读过，需要单独读取
+            try (Reader reader = new InputStreamReader(new FileInputStream(file), charset)) {
+                header = new CsvTokenizer(reader).readRecord();
+            }
+        }
+        return header == null ? null : header.clone();
+    }
+
+    /**
+     * 在[from, size)之间查找最后一个不在引号内的换行符
+     * @return 最后一个记录边界之后的位置，没有完整的记录时返回-1
+     */
+    private static long lastBoundary(FileChannel channel, long from, long size) throws IOException {
+        CsvRecordScanner scanner = new CsvRecordScanner();
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long last = -1;
+        long position = from;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            int i = 0;
+            while ((i = scanner.nextBoundary(buffer, i, read)) >= 0) {
+                last = position + i;
+            }
+            position += read;
+        }
+        return last;
+    }
+
+    private static long crc(FileChannel channel, int length) throws IOException {
+        CRC32 crc = new CRC32();
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) > 0) {
+            // read until the head is complete or the file ends
+        }
+        crc.update(buffer.array(), 0, buffer.position());
+        return crc.getValue();
+    }
+
+    private void loadCheckpoint() throws IOException {
+        if (! checkpoint.isFile()) {
+            return;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(checkpoint)) {
+            properties.load(in);
+        }
+        offset = Long.parseLong(properties.getProperty(OFFSET_KEY, "0"));
+        headLength = Integer.parseInt(properties.getProperty(HEAD_LENGTH_KEY, "0"));
+        headCrc = Long.parseLong(properties.getProperty(HEAD_CRC_KEY, "0"));
+    }
+
+    /**
+     * 先写临时文件再原子替换，进程在写检查点时退出也不会留下损坏的检查点
+     */
+    private void saveCheckpoint() throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(OFFSET_KEY, String.valueOf(offset));
+        properties.setProperty(HEAD_LENGTH_KEY, String.valueOf(headLength));
+        properties.setProperty(HEAD_CRC_KEY, String.valueOf(headCrc));
+        File temp = File.createTempFile(checkpoint.getName(), ".tmp", checkpoint.getAbsoluteFile().getParentFile());
+        try {
+            try (FileOutputStream out = new FileOutputStream(temp)) {
+                properties.store(out, file.getPath());
+                out.getFD().sync();
+            }
+            Files.move(temp.toPath(), checkpoint.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            temp.delete();
+        }
+    }
+
+    /**
+     * 读取通道中[from, to)之间的字节，close时不关闭通道
+     */
+    private static final class RangeInputStream extends InputStream {
+        private final InputStream in;
+        private long remaining;
+
+        private RangeInputStream(FileChannel channel, long from, long to) throws IOException {
+            this.in = Channels.newInputStream(channel.position(from));
+            this.remaining = to - from;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int n = in.read(b, off, (int) Math.min(len, remaining));
+            if (n > 0) {
+                remaining -= n;
+            }
+            return n;
+        }
+
+        @Override
+        public void close() {
+            // 通道由poll负责关闭
+        }
+    }
+}
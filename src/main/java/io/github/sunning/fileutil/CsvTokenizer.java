@@ -0,0 +1,428 @@
+package io.github.sunning.fileutil;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 轻量的csv记录解析器，规则与javacsv的默认配置保持一致：
+ * 逗号分隔、双引号包裹、引号内用两个双引号转义、去掉未包裹字段两端的空白、跳过空行
+ * 既可以从Reader中流式读取，也可以直接解析一段已经解码好的char数组
+ **/
+
+final class CsvTokenizer {
+
+    static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private static final char DELIMITER = ',';
+    private static final char QUOTE = '"';
+
+    private static final int END_FIELD = 0;
+    private static final int END_RECORD = 1;
+    private static final int END_INPUT = 2;
+
+    private final Reader reader;
+    private final char[] buf;
+    private int pos;
+    private int limit;
+    private boolean eof;
+
+    /** 当前字段的内容，每个字段复用 */
+    private char[] field = new char[256];
+    private int fieldLength;
+
+    private final List<String> values = new ArrayList<>();
+
+    /** 列投影：slotOf[列下标]为该列在结果中的位置，-1表示不需要该列 */
+    private int[] columns;
+    private int[] slotOf;
+    private int[] copyFrom;
+
+    /** 行过滤：各个条件按用到的最后一列排序，filterFields[列下标]暂存条件用到的字段，termValues是每个条件复用的参数 */
+    private CsvRowFilter filter;
+    private CsvRowFilter.Term[] filterTerms;
+    private boolean[] filterUsed;
+    private String[] filterFields;
+    private String[][] termValues;
+
+    /** 设置了行过滤时，先把需要的字段暂存在这里，行被保留后才创建字符串 */
+    private char[] recordChars;
+    private int recordLength;
+    private int[] fieldStarts;
+    private int[] fieldColumns;
+    private int fieldCount;
+
+    /**
+     * 逐个字段接收解析结果，chars只在回调期间有效
+     */
+    interface FieldHandler {
+        void field(int column, char[] chars, int length);
+    }
+
+    CsvTokenizer(Reader reader) {
+        this(reader, DEFAULT_BUFFER_SIZE);
+    }
+
+    CsvTokenizer(Reader reader, int bufferSize) {
+        this.reader = reader;
+        this.buf = new char[bufferSize];
+    }
+
+    /**
+     * 直接解析内存中的字符，不再需要Reader
+     */
+    CsvTokenizer(char[] chars, int offset, int length) {
+        this.reader = null;
+        this.buf = chars;
+        this.pos = offset;
+        this.limit = offset + length;
+        this.eof = true;
+    }
+
+    /**
+     * 只读取指定的列，其余列在解析时直接跳过，不会创建字符串
+     * 列下标只在这里校验一次
+     * @param columns 需要读取的列，为null时读取全部列
+     */
+    void setColumns(int[] columns) {
+        if (columns == null) {
+            this.columns = null;
+            this.slotOf = null;
+            this.copyFrom = null;
+            return;
+        }
+        int max = -1;
+        for (int column : columns) {
+            if (column < 0) {
+                throw new IllegalArgumentException("column index must not be negative: " + column);
+            }
+            max = Math.max(max, column);
+        }
+        int[] slots = new int[max + 1];
+        Arrays.fill(slots, -1);
+        int[] copies = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            copies[i] = slots[columns[i]];
+            if (slots[columns[i]] < 0) {
+                slots[columns[i]] = i;
+            }
+        }
+        this.columns = columns;
+        this.slotOf = slots;
+        this.copyFrom = copies;
+    }
+
+    /**
+     * 只返回满足条件的记录，条件用到的列解析完成后立即判断，不满足时跳过该行剩余的字段
+     * @param filter 过滤条件，为null时不过滤
+     */
+    void setFilter(CsvRowFilter filter) {
+        this.filter = filter;
+        if (filter == null) {
+            return;
+        }
+        CsvRowFilter.Term[] terms = filter.getTerms().clone();
+        // 稳定排序，用到的最后一列相同时按and的顺序判断
+        Arrays.sort(terms, Comparator.comparingInt(term -> term.maxColumn));
+        int max = terms[terms.length - 1].maxColumn;
+        boolean[] used = new boolean[max + 1];
+        String[][] buffers = new String[terms.length][];
+        for (int i = 0; i < terms.length; i++) {
+            for (int column : terms[i].columns) {
+                used[column] = true;
+            }
+            buffers[i] = new String[terms[i].columns.length];
+        }
+        this.filterTerms = terms;
+        this.filterUsed = used;
+        this.filterFields = new String[max + 1];
+        this.termValues = buffers;
+        this.recordChars = new char[1024];
+        this.fieldStarts = new int[17];
+        this.fieldColumns = new int[16];
+    }
+
+    /**
+     * 读取下一条记录
+     * @return 记录的所有字段（设置了列投影时只包含指定列），没有更多记录时返回null
+     * @throws IOException exception
+     */
+    String[] readRecord() throws IOException {
+        if (filter != null) {
+            while (skipEmptyLines()) {
+                if (readFiltered()) {
+                    return buildFiltered();
+                }
+            }
+            return null;
+        }
+        if (! skipEmptyLines()) {
+            return null;
+        }
+        if (columns != null) {
+            return readProjected();
+        }
+        values.clear();
+        int end;
+        do {
+            end = readField(true);
+            values.add(new String(field, 0, fieldLength));
+        } while (end == END_FIELD);
+        return values.toArray(new String[values.size()]);
+    }
+
+    private String[] readProjected() throws IOException {
+        String[] lineRes = new String[columns.length];
+        int end = END_FIELD;
+        int index = 0;
+        for (; index < slotOf.length && end == END_FIELD; index++) {
+            int slot = slotOf[index];
+            end = readField(slot >= 0);
+            if (slot >= 0) {
+                lineRes[slot] = new String(field, 0, fieldLength);
+            }
+        }
+        if (index < slotOf.length) {
+            throw new IllegalArgumentException("columns size must less file's columns size");
+        }
+        while (end == END_FIELD) {
+            end = readField(false);
+        }
+        for (int i = 0; i < copyFrom.length; i++) {
+            if (copyFrom[i] >= 0) {
+                lineRes[i] = lineRes[copyFrom[i]];
+            }
+        }
+        return lineRes;
+    }
+
+    /**
+     * 解析一条记录并判断过滤条件，需要的字段暂存在recordChars中
+     * @return 该行是否被保留
+     */
+    private boolean readFiltered() throws IOException {
+        recordLength = 0;
+        fieldCount = 0;
+        Arrays.fill(filterFields, null);
+        int nextTerm = 0;
+        boolean rejected = false;
+        int end = END_FIELD;
+        for (int index = 0; end == END_FIELD; index++) {
+            if (rejected || nextTerm == filterTerms.length && columns != null && index >= slotOf.length) {
+                break;
+            }
+            boolean project = columns == null || (index < slotOf.length && slotOf[index] >= 0);
+            boolean filterField = index < filterUsed.length && filterUsed[index];
+            end = readField(project || filterField);
+            if (filterField) {
+                filterFields[index] = new String(field, 0, fieldLength);
+            }
+            if (project) {
+                bufferField(index);
+            }
+            // 用到的列都已解析的条件立即判断
+            while (! rejected && nextTerm < filterTerms.length && filterTerms[nextTerm].maxColumn == index) {
+                rejected = ! testTerm(nextTerm++);
+            }
+        }
+        while (end == END_FIELD) {
+            end = readField(false);
+        }
+        // 记录的列数不足时，缺少的值为null
+        while (! rejected && nextTerm < filterTerms.length) {
+            rejected = ! testTerm(nextTerm++);
+        }
+        return ! rejected;
+    }
+
+    private boolean testTerm(int i) {
+        CsvRowFilter.Term term = filterTerms[i];
+        String[] values = termValues[i];
+        for (int j = 0; j < values.length; j++) {
+            values[j] = filterFields[term.columns[j]];
+        }
+        return term.predicate.test(values);
+    }
+
+    private void bufferField(int column) {
+        if (recordLength + fieldLength > recordChars.length) {
+            recordChars = Arrays.copyOf(recordChars, Math.max(recordChars.length << 1, recordLength + fieldLength));
+        }
+        System.arraycopy(field, 0, recordChars, recordLength, fieldLength);
+        if (fieldCount + 1 == fieldColumns.length) {
+            fieldColumns = Arrays.copyOf(fieldColumns, fieldColumns.length << 1);
+            fieldStarts = Arrays.copyOf(fieldStarts, fieldStarts.length << 1);
+        }
+        fieldStarts[fieldCount] = recordLength;
+        fieldColumns[fieldCount] = column;
+        recordLength += fieldLength;
+        fieldCount++;
+        fieldStarts[fieldCount] = recordLength;
+    }
+
+    private String[] buildFiltered() {
+        if (columns == null) {
+            String[] lineRes = new String[fieldCount];
+            for (int i = 0; i < fieldCount; i++) {
+                lineRes[i] = new String(recordChars, fieldStarts[i], fieldStarts[i + 1] - fieldStarts[i]);
+            }
+            return lineRes;
+        }
+        String[] lineRes = new String[columns.length];
+        for (int i = 0; i < fieldCount; i++) {
+            lineRes[slotOf[fieldColumns[i]]] = new String(recordChars, fieldStarts[i], fieldStarts[i + 1] - fieldStarts[i]);
+        }
+        if (fieldCount == 0 || fieldColumns[fieldCount - 1] < slotOf.length - 1) {
+            throw new IllegalArgumentException("columns size must less file's columns size");
+        }
+        for (int i = 0; i < copyFrom.length; i++) {
+            if (copyFrom[i] >= 0) {
+                lineRes[i] = lineRes[copyFrom[i]];
+            }
+        }
+        return lineRes;
+    }
+
+    /**
+     * 读取下一条记录，把每个字段直接交给handler，不创建String[]和字符串
+     * 设置了列投影时只回调指定的列，记录的列数不足时缺少的列不会回调
+     * @param handler 字段回调
+     * @return 没有更多记录时返回false
+     * @throws IOException exception
+     */
+    boolean readRecord(FieldHandler handler) throws IOException {
+        if (! skipEmptyLines()) {
+            return false;
+        }
+        int end = END_FIELD;
+        for (int index = 0; end == END_FIELD; index++) {
+            boolean keep = slotOf == null || (index < slotOf.length && slotOf[index] >= 0);
+            end = readField(keep);
+            if (keep) {
+                handler.field(index, field, fieldLength);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 跳过一条记录，不创建任何字段
+     * @return 没有更多记录时返回false
+     * @throws IOException exception
+     */
+    boolean skipRecord() throws IOException {
+        if (! skipEmptyLines()) {
+            return false;
+        }
+        while (readField(false) == END_FIELD) {
+            // skip
+        }
+        return true;
+    }
+
+    private boolean skipEmptyLines() throws IOException {
+        int c;
+        while ((c = peek()) == '\r' || c == '\n') {
+            pos++;
+        }
+        return c != -1;
+    }
+
+    /**
+     * 解析一个字段
+     * @param keep 为false时只移动读取位置，不保存字段内容
+     * @return 字段的结束方式
+     */
+    private int readField(boolean keep) throws IOException {
+        fieldLength = 0;
+        int c = peek();
+        while (c == ' ' || c == '\t') {
+            pos++;
+            c = peek();
+        }
+        if (c == QUOTE) {
+            pos++;
+            readQuoted(keep);
+            c = peek();
+            while (c != -1 && c != DELIMITER && c != '\r' && c != '\n') {
+                pos++;
+                c = peek();
+            }
+        } else if (keep) {
+            while (c != -1 && c != DELIMITER && c != '\r' && c != '\n') {
+                append((char) c);
+                pos++;
+                c = peek();
+            }
+            while (fieldLength > 0 && (field[fieldLength - 1] == ' ' || field[fieldLength - 1] == '\t')) {
+                fieldLength--;
+            }
+        } else {
+            while (c != -1 && c != DELIMITER && c != '\r' && c != '\n') {
+                pos++;
+                c = peek();
+            }
+        }
+        return terminate(c);
+    }
+
+    private void readQuoted(boolean keep) throws IOException {
+        int c;
+        while ((c = peek()) != -1) {
+            pos++;
+            if (c == QUOTE) {
+                if (peek() != QUOTE) {
+                    return;
+                }
+                pos++;
+            }
+            if (keep) {
+                append((char) c);
+            }
+        }
+    }
+
+    private int terminate(int c) throws IOException {
+        if (c == -1) {
+            return END_INPUT;
+        }
+        pos++;
+        if (c == DELIMITER) {
+            return END_FIELD;
+        }
+        if (c == '\r' && peek() == '\n') {
+            pos++;
+        }
+        return END_RECORD;
+    }
+
+    private void append(char c) {
+        if (fieldLength == field.length) {
+            field = Arrays.copyOf(field, field.length << 1);
+        }
+        field[fieldLength++] = c;
+    }
+
+    private int peek() throws IOException {
+        if (pos < limit) {
+            return buf[pos];
+        }
+        if (eof) {
+            return -1;
+        }
+        int n;
+        do {
+            n = reader.read(buf, 0, buf.length);
+        } while (n == 0);
+        if (n < 0) {
+            eof = true;
+            return -1;
+        }
+        pos = 0;
+        limit = n;
+        return buf[0];
+    }
+}
@@ -0,0 +1,223 @@
+package io.github.sunning.fileutil;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * 按CsvSchema解析后的一行数据，整数、小数、布尔、日期列直接保存为基本类型，不创建String和包装类
+ * 读取时同一个对象会被每一行重复使用，回调结束后不要再持有它
+ **/
+
+public final class CsvTypedRow {
+
+    private final CsvColumnType[] types;
+    /** INT、LONG、BOOLEAN（1或0）、DATE（epoch day）、DATETIME（秒，按UTC换算）的值 */
+    private final long[] longs;
+    private final double[] doubles;
+    /** STRING、DECIMAL的值 */
+    private final Object[] objects;
+    private final boolean[] nulls;
+    private long rowNumber = -1;
+
+    CsvTypedRow(CsvColumnType[] types) {
+        this.types = types;
+        this.longs = new long[types.length];
+        this.doubles = new double[types.length];
+        this.objects = new Object[types.length];
+        this.nulls = new boolean[types.length];
+    }
+
+    /**
+     * 开始解析新的一行，所有列先置为空
+     */
+    void reset() {
+        Arrays.fill(nulls, true);
+        Arrays.fill(longs, 0);
+        Arrays.fill(doubles, 0);
+        Arrays.fill(objects, null);
+        rowNumber++;
+    }
+
+    /**
+     * 把字段解析成列的类型
+     */
+    void set(int column, char[] chars, int length) {
+        if (length == 0) {
+            return;
+        }
+        try {
+            switch (types[column]) {
+                case BOOLEAN:
+                    longs[column] = CsvSchema.parseBoolean(chars, length) ? 1 : 0;
+                    break;
+                case INT:
+                    longs[column] = CsvNumbers.parseInt(chars, 0, length);
+                    break;
+                case LONG:
+                    longs[column] = CsvNumbers.parseLong(chars, 0, length);
+                    break;
+                case DATE:
+                    longs[column] = CsvSchema.parseDate(chars, length).toEpochDay();
+                    break;
+                case DATETIME:
+                    longs[column] = CsvSchema.parseDateTime(chars, length).toEpochSecond(ZoneOffset.UTC);
+                    break;
+                case DOUBLE:
+                    doubles[column] = CsvNumbers.parseDouble(chars, 0, length);
+                    break;
+                case DECIMAL:
+                    objects[column] = new BigDecimal(chars, 0, length);
+                    break;
+                default:
+                    objects[column] = new String(chars, 0, length);
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("can not parse csv value '" + new String(chars, 0, length) + "' at row "
+                    + rowNumber + " column " + column + " as " + types[column], e);
+        }
+        nulls[column] = false;
+    }
+
+    public int getColumnCount() {
+        return types.length;
+    }
+
+    /**
+     * @return 当前行在数据中的序号，从0开始，不包括标题行
+     */
+    public long getRowNumber() {
+        return rowNumber;
+    }
+
+    /**
+     * @return 字段为空或者该行的列数不足时返回true
+     */
+    public boolean isNull(int column) {
+        return nulls[column];
+    }
+
+    /**
+     * 读取INT列，空字段返回0
+     */
+    public int getInt(int column) {
+        if (types[column] != CsvColumnType.INT) {
+            throw mismatch(column, "INT");
+        }
+        return (int) longs[column];
+    }
+
+    /**
+     * 读取INT、LONG列，DATE列返回epoch day，DATETIME列返回按UTC换算的秒数，空字段返回0
+     */
+    public long getLong(int column) {
+        CsvColumnType type = types[column];
+        if (type != CsvColumnType.INT && type != CsvColumnType.LONG && type != CsvColumnType.DATE && type != CsvColumnType.DATETIME) {
+            throw mismatch(column, "INT, LONG, DATE or DATETIME");
+        }
+        return longs[column];
+    }
+
+    /**
+     * 读取DOUBLE列，INT、LONG、DECIMAL列会转换成double，空字段返回0
+     */
+    public double getDouble(int column) {
+        switch (types[column]) {
+            case DOUBLE:
+                return doubles[column];
+            case INT:
+            case LONG:
+                return longs[column];
+            case DECIMAL:
+                return nulls[column] ? 0 : ((BigDecimal) objects[column]).doubleValue();
+            default:
+                throw mismatch(column, "DOUBLE, INT, LONG or DECIMAL");
+        }
+    }
+
+    /**
+     * 读取BOOLEAN列，空字段返回false
+     */
+    public boolean getBoolean(int column) {
+        if (types[column] != CsvColumnType.BOOLEAN) {
+            throw mismatch(column, "BOOLEAN");
+        }
+        return longs[column] == 1;
+    }
+
+    /**
+     * 读取DECIMAL列，INT、LONG、DOUBLE列会转换成BigDecimal，空字段返回null
+     */
+    public BigDecimal getDecimal(int column) {
+        switch (types[column]) {
+            case DECIMAL:
+                return (BigDecimal) objects[column];
+            case DOUBLE:
+                return nulls[column] ? null : BigDecimal.valueOf(doubles[column]);
+            case INT:
+            case LONG:
+                return nulls[column] ? null : BigDecimal.valueOf(longs[column]);
+            default:
+                throw mismatch(column, "DECIMAL, INT, LONG or DOUBLE");
+        }
+    }
+
+    /**
+     * 读取DATE列，空字段返回null
+     */
+    public LocalDate getDate(int column) {
+        if (types[column] != CsvColumnType.DATE) {
+            throw mismatch(column, "DATE");
+        }
+        return nulls[column] ? null : LocalDate.ofEpochDay(longs[column]);
+    }
+
+    /**
+     * 读取DATETIME列，DATE列返回当天零点，空字段返回null
+     */
+    public LocalDateTime getDateTime(int column) {
+        CsvColumnType type = types[column];
+        if (type != CsvColumnType.DATETIME && type != CsvColumnType.DATE) {
+            throw mismatch(column, "DATETIME or DATE");
+        }
+        if (nulls[column]) {
+            return null;
+        }
+        if (type == CsvColumnType.DATE) {
+            return LocalDate.ofEpochDay(longs[column]).atStartOfDay();
+        }
+        return LocalDateTime.ofEpochSecond(longs[column], 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * 读取任意列的文本形式，STRING列直接返回，其余列按类型格式化，空字段返回空字符串
+     */
+    public String getString(int column) {
+        if (nulls[column]) {
+            return "";
+        }
+        switch (types[column]) {
+            case BOOLEAN:
+                return String.valueOf(getBoolean(column));
+            case INT:
+            case LONG:
+                return String.valueOf(longs[column]);
+            case DATE:
+                return getDate(column).toString();
+            case DATETIME:
+                return CsvSchema.formatDateTime(getDateTime(column));
+            case DOUBLE:
+                return String.valueOf(doubles[column]);
+            case DECIMAL:
+                return ((BigDecimal) objects[column]).toPlainString();
+            default:
+                return (String) objects[column];
+        }
+    }
+
+    private IllegalArgumentException mismatch(int column, String expected) {
+        return new IllegalArgumentException("column " + column + " is " + types[column] + ", expected " + expected);
+    }
+}
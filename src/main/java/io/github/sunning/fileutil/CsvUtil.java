@@ -1,15 +1,18 @@
 package io.github.sunning.fileutil;
 
-import com.csvreader.CsvReader;
-import com.csvreader.CsvWriter;
 import com.google.common.base.Charsets;
-import org.apache.commons.lang3.ArrayUtils;
 
 import java.io.*;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
 
 /**
  * @author zq_gan
@@ -20,6 +23,14 @@ import java.util.List;
 
 public class CsvUtil {
 
+    /**
+     * 读写gzip压缩的csv文件时使用的缓冲区大小
+     */
+    static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private static final int GZIP_MAGIC_LOW = 0x1f;
+    private static final int GZIP_MAGIC_HIGH = 0x8b;
+
     /**
      * 读取csv文件内容
      * @param filePath csv文件的路径
@@ -132,46 +143,315 @@ public class CsvUtil {
      */
     public static List<String[]> read(InputStream inputStream, Charset charset, boolean needHeader, int[] columns) throws Exception {
         List<String[]> csvList = new ArrayList<>();
-        CsvReader reader = new CsvReader(inputStream, ',', charset);
-        if (! needHeader) {
-            reader.readHeaders();
-        }
-        while(reader.readRecord()) {
-            if (ArrayUtils.isEmpty(columns)) {
-                csvList.add(reader.getValues());
-            } else {
-                String[] lineRes = new String[columns.length];
-                if (! checkColumnSize(columns, reader.getColumnCount())) {
-                    throw new IllegalArgumentException("columns size must less file's columns size");
-                }
-                for (int i = 0; i < columns.length; i++) {
-                    lineRes[i] = reader.getValues()[columns[i]];
-                }
-                csvList.add(lineRes);
+        read(inputStream, charset, needHeader, columns, csvList::add);
+        return csvList;
+    }
+
+    /**
+     * 逐行读取csv文件内容，每读到一行回调一次consumer，不会把整个文件加载到内存中
+     * @param filePath csv文件的路径
+     * @param needHeader 是否需要列标题（假设第一行是有标题的，如果没有该参数请传true）
+     * @param columns 指定读取csv文件的哪几列，如果为null，则读取全部列
+     * @param consumer 每一行数据的回调
+     * @throws Exception exception
+     */
+    public static void read(String filePath, boolean needHeader, int[] columns, Consumer<String[]> consumer) throws Exception {
+        read(new FileInputStream(filePath), Charsets.UTF_8, needHeader, columns, consumer);
+    }
+
+    /**
+     * 逐行读取csv文件内容，每读到一行回调一次consumer，不会把整个文件加载到内存中
+     * @param inputStream stream，读取完毕后会被关闭
+     * @param charset csv文件的编码
+     * @param needHeader 是否需要列标题（假设第一行是有标题的，如果没有该参数请传true）
+     * @param columns 指定读取csv文件的哪几列，如果为null，则读取全部列
+     * @param consumer 每一行数据的回调
+     * @throws Exception exception
+     */
+    public static void read(InputStream inputStream, Charset charset, boolean needHeader, int[] columns, Consumer<String[]> consumer) throws Exception {
+        read(inputStream, charset, needHeader, columns, null, consumer);
+    }
+
+    /**
+     * 读取csv文件中满足条件的行，条件在解析时判断，不满足条件的行不会创建任何结果
+     * @param filePath csv文件的路径
+     * @param needHeader 是否需要列标题（假设第一行是有标题的，如果没有该参数请传true）
+     * @param columns 指定读取csv文件的哪几列，如果为null，则读取全部列
+     * @param filter 行过滤条件，作用于原始文件的列，如果为null，则不过滤
+     * @return 返回csv文件中满足条件的数据
+     * @throws Exception exception
+     */
+    public static List<String[]> read(String filePath, boolean needHeader, int[] columns, CsvRowFilter filter) throws Exception {
+        List<String[]> csvList = new ArrayList<>();
+        read(new FileInputStream(filePath), Charsets.UTF_8, needHeader, columns, filter, csvList::add);
+        return csvList;
+    }
+
+    /**
+     * 逐行读取csv文件中满足条件的行，条件在解析时判断，不满足条件的行不会创建任何结果
+     * @param inputStream stream，读取完毕后会被关闭
+     * @param charset csv文件的编码
+     * @param needHeader 是否需要列标题（假设第一行是有标题的，如果没有该参数请传true）
+     * @param columns 指定读取csv文件的哪几列，如果为null，则读取全部列
+     * @param filter 行过滤条件，作用于原始文件的列，如果为null，则不过滤
+     * @param consumer 每一行数据的回调
+     * @throws Exception exception
+     */
+    public static void read(InputStream inputStream, Charset charset, boolean needHeader, int[] columns,
+                            CsvRowFilter filter, Consumer<String[]> consumer) throws Exception {
+        try (CsvRowIterator iterator = iterator(inputStream, charset, needHeader, columns, filter)) {
+            while (iterator.hasNext()) {
+                consumer.accept(iterator.next());
             }
         }
-        reader.close();
-        return csvList;
+    }
+
+    /**
+     * 获取csv文件的逐行迭代器，使用完毕后需要close
+     * @param filePath csv文件的路径
+     * @param needHeader 是否需要列标题（假设第一行是有标题的，如果没有该参数请传true）
+     * @param columns 指定读取csv文件的哪几列，如果为null，则读取全部列
+     * @return 行迭代器
+     * @throws Exception exception
+     */
+    public static CsvRowIterator iterator(String filePath, boolean needHeader, int[] columns) throws Exception {
+        return iterator(new FileInputStream(filePath), Charsets.UTF_8, needHeader, columns);
+    }
+
+    /**
+     * 获取csv文件的逐行迭代器，使用完毕后需要close
+     * @param inputStream stream，迭代器close时会被关闭
+     * @param charset csv文件的编码
+     * @param needHeader 是否需要列标题（假设第一行是有标题的，如果没有该参数请传true）
+     * @param columns 指定读取csv文件的哪几列，如果为null，则读取全部列
+     * @return 行迭代器
+     * @throws Exception exception
+     */
+    public static CsvRowIterator iterator(InputStream inputStream, Charset charset, boolean needHeader, int[] columns) throws Exception {
+        return iterator(inputStream, charset, needHeader, columns, null);
+    }
+
+    /**
+     * 获取csv文件的逐行迭代器，只返回满足条件的行，使用完毕后需要close
+     * @param inputStream stream，迭代器close时会被关闭
+     * @param charset csv文件的编码
+     * @param needHeader 是否需要列标题（假设第一行是有标题的，如果没有该参数请传true）
+     * @param columns 指定读取csv文件的哪几列，如果为null，则读取全部列
+     * @param filter 行过滤条件，作用于原始文件的列，如果为null，则不过滤
+     * @return 行迭代器
+     * @throws Exception exception
+     */
+    public static CsvRowIterator iterator(InputStream inputStream, Charset charset, boolean needHeader, int[] columns,
+                                          CsvRowFilter filter) throws Exception {
+        return new CsvRowIterator(decompressIfGzip(inputStream), charset, needHeader, columns, filter);
+    }
+
+    /**
+     * 以Stream的方式逐行读取csv文件，使用完毕后需要close，推荐使用try-with-resources
+     * @param filePath csv文件的路径
+     * @param needHeader 是否需要列标题（假设第一行是有标题的，如果没有该参数请传true）
+     * @param columns 指定读取csv文件的哪几列，如果为null，则读取全部列
+     * @return 行数据的Stream
+     * @throws Exception exception
+     */
+    public static Stream<String[]> stream(String filePath, boolean needHeader, int[] columns) throws Exception {
+        return stream(new FileInputStream(filePath), Charsets.UTF_8, needHeader, columns);
+    }
+
+    /**
+     * 以Stream的方式逐行读取csv文件，使用完毕后需要close，推荐使用try-with-resources
+     * @param inputStream stream，Stream close时会被关闭
+     * @param charset csv文件的编码
+     * @param needHeader 是否需要列标题（假设第一行是有标题的，如果没有该参数请传true）
+     * @param columns 指定读取csv文件的哪几列，如果为null，则读取全部列
+     * @return 行数据的Stream
+     * @throws Exception exception
+     */
+    public static Stream<String[]> stream(InputStream inputStream, Charset charset, boolean needHeader, int[] columns) throws Exception {
+        CsvRowIterator iterator = iterator(inputStream, charset, needHeader, columns);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
+    /**
+     * 读取csv文件内容并转换成JavaBean，第一行为列标题，按列标题匹配属性名或@CsvColumn
+     * @param filePath csv文件的路径
+     * @param clazz JavaBean的类型，需要有无参构造方法
+     * @param <T> 具体类型
+     * @return JavaBean列表
+     * @throws Exception exception
+     * @see CsvColumn
+     */
+    public static <T> List<T> readBeans(String filePath, Class<T> clazz) throws Exception {
+        List<T> beans = new ArrayList<>();
+        readBeans(new FileInputStream(filePath), Charsets.UTF_8, true, clazz, beans::add);
+        return beans;
+    }
+
+    /**
+     * 逐行读取csv文件内容并转换成JavaBean
+     * 每个类的映射关系只解析一次并缓存，字段直接解析成属性的类型，不会为每一行创建String[]
+     * @param inputStream stream，读取完毕后会被关闭
+     * @param charset csv文件的编码
+     * @param withHeader 第一行是否为列标题，为true时按列标题匹配属性，为false时只能通过@CsvColumn的index匹配
+     * @param clazz JavaBean的类型，需要有无参构造方法
+     * @param consumer 每个JavaBean的回调
+     * @param <T> 具体类型
+     * @throws Exception exception
+     */
+    public static <T> void readBeans(InputStream inputStream, Charset charset, boolean withHeader, Class<T> clazz,
+                                     Consumer<T> consumer) throws Exception {
+        CsvBeanMapping<T> mapping = CsvBeanMapping.of(clazz);
+        try (Reader reader = new InputStreamReader(decompressIfGzip(inputStream), charset)) {
+            mapping.read(new CsvTokenizer(reader), withHeader, consumer);
+        }
+    }
+
+    /**
+     * 读取csv文件的前1000行，推断每一列的数据类型（布尔、整数、日期、小数、字符串等）
+     * @param filePath csv文件的路径
+     * @param withHeader 第一行是否为列标题
+     * @return 推断出的schema
+     * @throws Exception exception
+     * @see CsvSchema
+     */
+    public static CsvSchema inferSchema(String filePath, boolean withHeader) throws Exception {
+        return CsvSchema.infer(filePath, withHeader, CsvSchema.DEFAULT_SAMPLE_ROWS);
+    }
+
+    /**
+     * 按schema逐行读取csv文件，数值、布尔、日期列直接解析成基本类型，不创建String和包装类
+     * @param filePath csv文件的路径
+     * @param withHeader 第一行是否为列标题，为true时跳过第一行
+     * @param schema 每一列的类型，可以通过inferSchema推断
+     * @param consumer 每一行数据的回调，同一个CsvTypedRow对象会被重复使用
+     * @throws Exception exception
+     */
+    public static void readTyped(String filePath, boolean withHeader, CsvSchema schema, Consumer<CsvTypedRow> consumer) throws Exception {
+        schema.read(filePath, withHeader, consumer);
+    }
+
+    /**
+     * 获取按需解析csv文件的发布者，只有订阅者请求了数据才会继续解析，适合下游处理较慢的场景
+     * @param filePath csv文件的路径
+     * @param needHeader 是否需要列标题（假设第一行是有标题的，如果没有该参数请传true）
+     * @param columns 指定读取csv文件的哪几列，如果为null，则读取全部列
+     * @return 发布者，每次subscribe都会从头读取文件
+     * @see CsvPublisher
+     */
+    public static CsvPublisher publisher(String filePath, boolean needHeader, int[] columns) {
+        return new CsvPublisher(filePath, needHeader, columns);
+    }
+
+    /**
+     * 多线程读取本地csv文件内容，适合较大的文件，返回结果与文件中的行顺序一致
+     * @param filePath csv文件的路径
+     * @param needHeader 是否需要列标题（假设第一行是有标题的，如果没有该参数请传true）
+     * @param columns 指定读取csv文件的哪几列，如果为null，则读取全部列
+     * @return 返回csv文件中的数据
+     * @throws Exception exception
+     * @see ParallelCsvReader
+     */
+    public static List<String[]> readParallel(String filePath, boolean needHeader, int[] columns) throws Exception {
+        // gzip文件由ParallelCsvReader顺序读取
+        return new ParallelCsvReader().read(filePath, needHeader, columns);
+    }
+
+    /**
+     * 读取csv文件并按列存储，整数、小数列存成基本类型数组，字符串列按字典编码或UTF-8字节存储，适合常驻内存的数据
+     * @param filePath csv文件的路径
+     * @param withHeader 第一行是否为列标题
+     * @return 列式存储的表
+     * @throws Exception exception
+     * @see CsvColumnarTable
+     */
+    public static CsvColumnarTable readColumnar(String filePath, boolean withHeader) throws Exception {
+        return CsvColumnarTable.load(filePath, withHeader);
+    }
+
+    /**
+     * 按列读取csv文件，useSnapshot为true时在csv文件旁边保存二进制快照（文件名加.columnar后缀），
+     * 下次读取时如果csv文件的大小、修改时间和抽样内容的校验和都没有变化，直接通过内存映射加载快照，不再解析文本
+     * @param filePath csv文件的路径
+     * @param withHeader 第一行是否为列标题
+     * @param useSnapshot 是否使用二进制快照
+     * @return 列式存储的表
+     * @throws Exception exception
+     */
+    public static CsvColumnarTable readColumnar(String filePath, boolean withHeader, boolean useSnapshot) throws Exception {
+        if (! useSnapshot) {
+            return CsvColumnarTable.load(filePath, withHeader);
+        }
+        return CsvColumnarTable.load(filePath, withHeader, filePath + CsvColumnarSnapshot.SUFFIX);
     }
 
     /**
      * 数据写入csv文件
      * @param list UTF-8编码写入csv文件的内容
-     * @param filePath 写入的csv文件的指定路径
+     * @param filePath 写入的csv文件的指定路径，以.gz结尾时以gzip格式压缩写入
      * @param append 是否以追加的方式写入（追加：append为true, 覆盖：append为false）
      * @throws Exception exception
      */
     public static void write(List<String[]> list, String filePath, boolean append) throws Exception {
-        BufferedWriter writer = new BufferedWriter(new FileWriter(new File(filePath), append));
-        CsvWriter wr = new CsvWriter(writer, ',');
-        for (String[] strings : list) {
-            wr.writeRecord(strings);
+        write(list.iterator(), filePath, append);
+    }
+
+    /**
+     * 逐行把数据写入csv文件，不需要先把所有数据放进List
+     * @param rows UTF-8编码写入csv文件的内容
+     * @param filePath 写入的csv文件的指定路径，以.gz结尾时以gzip格式压缩写入
+     * @param append 是否以追加的方式写入（追加：append为true, 覆盖：append为false）
+     * @throws Exception exception
+     */
+    public static void write(Iterator<String[]> rows, String filePath, boolean append) throws Exception {
+        try (CsvFileWriter writer = writer(filePath, append)) {
+            writer.writeRows(rows);
         }
-        wr.close();
     }
 
-    private static boolean checkColumnSize(int[] columns, int size) {
-        return Arrays.stream(columns).allMatch(i -> i < size);
+    /**
+     * 打开一个csv写入会话，可以多次写入，使用完毕后需要close
+     * @param filePath 写入的csv文件的指定路径，以.gz结尾时以gzip格式压缩写入
+     * @param append 是否以追加的方式写入（追加：append为true, 覆盖：append为false）
+     * @return 写入会话
+     * @throws Exception exception
+     * @see CsvFileWriter
+     */
+    public static CsvFileWriter writer(String filePath, boolean append) throws Exception {
+        return new CsvFileWriter(filePath, append);
+    }
+
+    /**
+     * 根据文件头的魔数判断是否为gzip压缩的文件
+     * @param filePath 文件路径
+     * @return 是否为gzip文件
+     * @throws IOException exception
+     */
+    public static boolean isGzip(String filePath) throws IOException {
+        try (InputStream in = new FileInputStream(filePath)) {
+            return in.read() == GZIP_MAGIC_LOW && in.read() == GZIP_MAGIC_HIGH;
+        }
+    }
+
+    /**
+     * 输入流以gzip魔数开头时，包装成边读边解压的流，其余情况原样返回
+     */
+    static InputStream decompressIfGzip(InputStream inputStream) throws IOException {
+        PushbackInputStream in = new PushbackInputStream(inputStream, 2);
+        byte[] magic = new byte[2];
+        int n = 0;
+        while (n < magic.length) {
+            int read = in.read(magic, n, magic.length - n);
+            if (read < 0) {
+                break;
+            }
+            n += read;
+        }
+        in.unread(magic, 0, n);
+        if (n == magic.length && (magic[0] & 0xFF) == GZIP_MAGIC_LOW && (magic[1] & 0xFF) == GZIP_MAGIC_HIGH) {
+            return new GZIPInputStream(in, GZIP_BUFFER_SIZE);
+        }
+        return in;
     }
 
 }
@@ -0,0 +1,182 @@
+package io.github.sunning.fileutil;
+
+import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.ExcelWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 多sheet并行写入xlsx文件
+ * 每个sheet的数据由各自的线程产生（比如各自执行一个数据库查询），先写入临时csv文件，
+ * 再按添加顺序依次写入同一个xlsx文件，总耗时接近最慢的一个sheet而不是所有sheet之和
+ * 前面的sheet写入xlsx时后面的sheet仍在并行产生数据，内存占用与数据量无关
+ * <pre>
+ *     new ExcelSheetsWriter()
+ *             .sheet("订单", () -&gt; orderDao.iterate(month))
+ *             .sheet("退款", () -&gt; refundDao.iterate(month))
+ *             .write(filePath);
+ * </pre>
+ **/
+
+public class ExcelSheetsWriter {
+
+    private final int parallelism;
+    private final File tempDir;
+    private final Map<String, Callable<? extends Iterator<String[]>>> sheets = new LinkedHashMap<>();
+
+    /**
+     * 每个sheet使用一个线程，临时文件写入系统临时目录
+     */
+    public ExcelSheetsWriter() {
+        this(0, null);
+    }
+
+    /**
+     * @param parallelism 同时产生数据的sheet数，小于等于0时每个sheet使用一个线程
+     * @param tempDir 临时文件目录，为null时使用系统临时目录
+     */
+    public ExcelSheetsWriter(int parallelism, File tempDir) {
+        this.parallelism = parallelism;
+        this.tempDir = tempDir;
+    }
+
+    /**
+     * 添加一个sheet，sheet按添加的顺序排列
+     * @param sheetName sheet名，不能重复
+     * @param rows 产生该sheet数据的任务，在单独的线程中执行；返回的迭代器实现了AutoCloseable时读取完毕后会被close
+     * @return this
+     */
+    public ExcelSheetsWriter sheet(String sheetName, Callable<? extends Iterator<String[]>> rows) {
+        if (sheets.containsKey(sheetName)) {
+            throw new IllegalArgumentException("duplicate sheet name: " + sheetName);
+        }
+        sheets.put(sheetName, rows);
+        return this;
+    }
+
+    /**
+     * 执行所有sheet的任务并写入xlsx文件，任一任务失败时立即中断其余任务，不保留写了一半的文件
+     * @param filePath 写入的xlsx文件的路径
+     * @throws Exception 最先失败的任务抛出的异常
+     */
+    public void write(String filePath) throws Exception {
+        if (sheets.isEmpty()) {
+            throw new IllegalArgumentException("no sheet to write");
+        }
+        int threads = parallelism > 0 ? Math.min(parallelism, sheets.size()) : sheets.size();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<File> spills = new ArrayList<>(sheets.size());
+        List<CompletableFuture<Void>> spilled = new ArrayList<>(sheets.size());
+        // 任一任务失败时完成，写入xlsx的线程不需要等前面的sheet写完就能发现失败
+        CompletableFuture<Void> failure = new CompletableFuture<>();
+        boolean success = false;
+        try {
+            for (Callable<? extends Iterator<String[]>> rows : sheets.values()) {
+                File spill = createTempFile();
+                spills.add(spill);
+                CompletableFuture<Void> done = new CompletableFuture<>();
+                spilled.add(done);
+                try {
+                    executor.execute(() -> {
+                        try {
+                            spill(rows, spill);
+                            done.complete(null);
+                        } catch (Throwable e) {
+                            done.completeExceptionally(e);
+                            if (failure.completeExceptionally(e)) {
+                                executor.shutdownNow();
+                            }
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    // 已经有任务失败，线程池被关闭，assemble会抛出最先失败的任务的异常
+                    done.completeExceptionally(e);
+                }
+            }
+            assemble(filePath, spills, spilled, failure);
+            success = true;
+        } finally {
+            executor.shutdownNow();
+            for (File spill : spills) {
+                spill.delete();
+            }
+            if (! success) {
+                new File(filePath).delete();
+            }
+        }
+    }
+
+    /**
+     * 按顺序等待每个sheet的临时文件写完，再把它写入xlsx；等待期间任一任务失败时立即抛出该任务的异常
+     */
+    private void assemble(String filePath, List<File> spills, List<CompletableFuture<Void>> spilled,
+                          CompletableFuture<Void> failure) throws Exception {
+        ExcelWriter writer = EasyExcel.write(filePath).needHead(false).build();
+        Exception error = null;
+        try {
+            int sheetNo = 0;
+            for (String sheetName : sheets.keySet()) {
+                await(CompletableFuture.anyOf(failure, spilled.get(sheetNo)));
+                try (CsvRowIterator rows = CsvUtil.iterator(spills.get(sheetNo).getPath(), true, null)) {
+                    ExcelUtil.writeSheet(writer, EasyExcel.writerSheet(sheetNo, sheetName).build(), rows);
+                }
+                sheetNo++;
+            }
+        } catch (Exception e) {
+            error = e;
+            throw e;
+        } finally {
+            try {
+                writer.finish();
+            } catch (RuntimeException e) {
+                if (error == null) {
+                    throw e;
+                }
+                // 保留任务的原始异常
+                error.addSuppressed(e);
+            }
+        }
+    }
+
+    private static void spill(Callable<? extends Iterator<String[]>> rows, File spill) throws Exception {
+        Iterator<String[]> iterator = rows.call();
+        try (CsvFileWriter writer = new CsvFileWriter(spill.getPath(), false)) {
+            writer.writeRows(iterator);
+        } finally {
+            if (iterator instanceof AutoCloseable) {
+                ((AutoCloseable) iterator).close();
+            }
+        }
+    }
+
+    private File createTempFile() throws IOException {
+        File file = File.createTempFile("excel-sheet-", ".csv", tempDir);
+        file.deleteOnExit();
+        return file;
+    }
+
+    private static void await(Future<?> future) throws Exception {
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+    }
+}
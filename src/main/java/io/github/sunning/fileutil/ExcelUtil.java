@@ -0,0 +1,228 @@
+package io.github.sunning.fileutil;
+
+import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.ExcelWriter;
+import com.alibaba.excel.context.AnalysisContext;
+import com.alibaba.excel.event.AnalysisEventListener;
+import com.alibaba.excel.write.metadata.WriteSheet;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 基于easyexcel的Excel读写工具类
+ * 读取使用事件模式（xlsx为SAX解析），每读到一行或者一批回调一次，不会把整个文件加载到内存中
+ * 写入从迭代器中分批取数据，easyexcel写xlsx时只在内存中保留最近的少量行，内存占用与数据量无关
+ * 单元格的值都按字符串读写，空单元格读出为空字符串
+ **/
+
+public class ExcelUtil {
+
+    /**
+     * 写入时每批交给easyexcel的行数
+     */
+    static final int WRITE_BATCH_SIZE = 1000;
+
+    /**
+     * 默认的sheet名
+     */
+    public static final String DEFAULT_SHEET_NAME = "Sheet1";
+
+    /**
+     * 读取Excel文件第一个sheet的内容
+     * @param filePath Excel文件的路径，支持xlsx和xls
+     * @param needHeader 是否需要列标题（假设第一行是有标题的，如果没有该参数请传true）
+     * @return 返回sheet中的数据
+     * @throws Exception exception
+     */
+    public static List<String[]> read(String filePath, boolean needHeader) throws Exception {
+        List<String[]> rows = new ArrayList<>();
+        read(new FileInputStream(filePath), 0, needHeader, rows::add);
+        return rows;
+    }
+
+    /**
+     * 逐行读取Excel文件，每读到一行回调一次consumer
+     * @param filePath Excel文件的路径，支持xlsx和xls
+     * @param sheetNo sheet的下标，从0开始
+     * @param needHeader 是否需要列标题（假设第一行是有标题的，如果没有该参数请传true）
+     * @param consumer 每一行数据的回调
+     * @throws Exception exception
+     */
+    public static void read(String filePath, int sheetNo, boolean needHeader, Consumer<String[]> consumer) throws Exception {
+        read(new FileInputStream(filePath), sheetNo, needHeader, consumer);
+    }
+
+    /**
+     * 逐行读取Excel，每读到一行回调一次consumer
+     * @param inputStream stream，读取完毕后会被关闭
+     * @param sheetNo sheet的下标，从0开始
+     * @param needHeader 是否需要列标题（假设第一行是有标题的，如果没有该参数请传true）
+     * @param consumer 每一行数据的回调
+     * @throws Exception exception
+     */
+    public static void read(InputStream inputStream, int sheetNo, boolean needHeader, Consumer<String[]> consumer) throws Exception {
+        try (InputStream in = inputStream) {
+            EasyExcel.read(in, new RowListener(consumer))
+                    .headRowNumber(needHeader ? 0 : 1)
+                    .autoTrim(false)
+                    .sheet(sheetNo)
+                    .doRead();
+        }
+    }
+
+    /**
+     * 分批读取Excel文件，每读满batchSize行回调一次consumer，最后一批可能不足batchSize行
+     * @param filePath Excel文件的路径，支持xlsx和xls
+     * @param sheetNo sheet的下标，从0开始
+     * @param needHeader 是否需要列标题（假设第一行是有标题的，如果没有该参数请传true）
+     * @param batchSize 每批的行数
+     * @param consumer 每一批数据的回调，回调结束后list会被清空复用
+     * @throws Exception exception
+     */
+    public static void readBatch(String filePath, int sheetNo, boolean needHeader, int batchSize,
+                                 Consumer<List<String[]>> consumer) throws Exception {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        List<String[]> batch = new ArrayList<>(batchSize);
+        read(filePath, sheetNo, needHeader, row -> {
+            batch.add(row);
+            if (batch.size() == batchSize) {
+                consumer.accept(batch);
+                batch.clear();
+            }
+        });
+        if (! batch.isEmpty()) {
+            consumer.accept(batch);
+        }
+    }
+
+    /**
+     * 数据写入xlsx文件
+     * @param list 写入的内容
+     * @param filePath 写入的Excel文件的指定路径
+     * @throws Exception exception
+     */
+    public static void write(List<String[]> list, String filePath) throws Exception {
+        write(list.iterator(), filePath, DEFAULT_SHEET_NAME);
+    }
+
+    /**
+     * 逐批从迭代器中取数据写入xlsx文件，不需要先把所有数据放进List
+     * @param rows 行迭代器
+     * @param filePath 写入的Excel文件的指定路径
+     * @param sheetName sheet名
+     * @throws Exception exception
+     */
+    public static void write(Iterator<String[]> rows, String filePath, String sheetName) throws Exception {
+        ExcelWriter writer = EasyExcel.write(filePath).needHead(false).build();
+        try {
+            writeSheet(writer, EasyExcel.writerSheet(0, sheetName).build(), rows);
+        } finally {
+            writer.finish();
+        }
+    }
+
+    /**
+     * 逐批从迭代器中取数据以xlsx格式写入输出流
+     * @param rows 行迭代器
+     * @param outputStream 输出流，写入完毕后会被关闭
+     * @param sheetName sheet名
+     * @throws Exception exception
+     */
+    public static void write(Iterator<String[]> rows, OutputStream outputStream, String sheetName) throws Exception {
+        ExcelWriter writer = EasyExcel.write(outputStream).needHead(false).build();
+        try {
+            writeSheet(writer, EasyExcel.writerSheet(0, sheetName).build(), rows);
+        } finally {
+            writer.finish();
+        }
+    }
+
+    /**
+     * csv文件转换为xlsx文件，逐行读取逐批写入
+     * @param csvPath csv文件的路径，gzip压缩的文件会自动解压
+     * @param xlsxPath 写入的xlsx文件的路径
+     * @throws Exception exception
+     */
+    public static void csvToXlsx(String csvPath, String xlsxPath) throws Exception {
+        try (CsvRowIterator rows = CsvUtil.iterator(csvPath, true, null)) {
+            write(rows, xlsxPath, DEFAULT_SHEET_NAME);
+        }
+    }
+
+    /**
+     * xlsx文件的第一个sheet转换为csv文件，逐行读取逐行写入
+     * @param xlsxPath xlsx文件的路径
+     * @param csvPath 写入的csv文件的路径，以.gz结尾时以gzip格式压缩写入
+     * @throws Exception exception
+     */
+    public static void xlsxToCsv(String xlsxPath, String csvPath) throws Exception {
+        try (CsvFileWriter writer = new CsvFileWriter(csvPath, false)) {
+            read(xlsxPath, 0, true, row -> {
+                try {
+                    writer.writeRow(row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    /**
+     * 把迭代器中的数据分批写入sheet
+     */
+    static void writeSheet(ExcelWriter writer, WriteSheet sheet, Iterator<String[]> rows) {
+        // easyexcel默认会去掉字符串首尾的空格，这里要原样写入
+        sheet.setAutoTrim(false);
+        List<List<String>> batch = new ArrayList<>(WRITE_BATCH_SIZE);
+        while (rows.hasNext()) {
+            batch.add(Arrays.asList(rows.next()));
+            if (batch.size() == WRITE_BATCH_SIZE) {
+                writer.write(batch, sheet);
+                batch = new ArrayList<>(WRITE_BATCH_SIZE);
+            }
+        }
+        // 最后一批即使为空也要写一次，否则没有数据时不会创建sheet
+        writer.write(batch, sheet);
+    }
+
+    /**
+     * 把easyexcel解析出的行转换成String[]
+     */
+    private static final class RowListener extends AnalysisEventListener<Map<Integer, String>> {
+        private final Consumer<String[]> consumer;
+
+        private RowListener(Consumer<String[]> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void invoke(Map<Integer, String> data, AnalysisContext context) {
+            int width = 0;
+            for (Integer index : data.keySet()) {
+                width = Math.max(width, index + 1);
+            }
+            String[] row = new String[width];
+            for (int i = 0; i < width; i++) {
+                String value = data.get(i);
+                row[i] = value == null ? "" : value;
+            }
+            consumer.accept(row);
+        }
+
+        @Override
+        public void doAfterAllAnalysed(AnalysisContext context) {
+        }
+    }
+}
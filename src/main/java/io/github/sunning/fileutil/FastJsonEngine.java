@@ -0,0 +1,40 @@
+package io.github.sunning.fileutil;
+
+import com.alibaba.fastjson.JSON;
+
+import java.util.List;
+
+/**
+ * 基于fastjson的json引擎，与FastJsonUtil的行为一致，解析时构建完整的对象树
+ * 对象解析为JSONObject，属性顺序不保证与原文一致
+ **/
+
+final class FastJsonEngine implements JsonEngine {
+
+    static final String NAME = "fastjson";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public String toJson(Object value) {
+        return JSON.toJSONString(value);
+    }
+
+    @Override
+    public Object parse(String json) {
+        return JSON.parse(json);
+    }
+
+    @Override
+    public Object eval(String json, String path) {
+        return CompiledJsonPath.compile(path).eval(JSON.parse(json));
+    }
+
+    @Override
+    public String mask(String json, List<String> paths) {
+        return FastJsonUtil.encryptJson(json, paths);
+    }
+}
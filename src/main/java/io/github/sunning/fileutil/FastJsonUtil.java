@@ -1,19 +1,44 @@
 package io.github.sunning.fileutil;
 
 import com.alibaba.fastjson.*;
-import com.alibaba.fastjson.serializer.PropertyFilter;
+import com.alibaba.fastjson.parser.ParserConfig;
+import com.alibaba.fastjson.serializer.SimplePropertyPreFilter;
+import com.alibaba.fastjson.util.TypeUtils;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 
 public class FastJsonUtil {
+
+    /**
+     * 缓存的属性过滤器数，超过后新的组合不再缓存
+     */
+    static final int MAX_FILTER_CACHE_SIZE = 256;
+
+    private static final ConcurrentMap<List<String>, SimplePropertyPreFilter> EXCLUDE_FILTERS = new ConcurrentHashMap<>();
+
+    private static final SimplePropertyPreFilter SCHEMA_FILTER = excludeFilter("schema");
+
     /**
      * 序列化Json
      */
@@ -28,24 +53,48 @@ public class FastJsonUtil {
      * @return
      */
     public static String toStringNoSchema(Object object) {
-        return toJsonString(object, "schema");
+        return JSON.toJSONString(object, SCHEMA_FILTER);
     }
 
     /**
      * 序列化Json时删除不必要的属性
+     * 相同属性组合的过滤器会被缓存，过滤在取属性值之前进行，被删除的属性不会调用getter
      *
      * @param object
      * @param reAttrs
      * @return String
      */
     public static String toJsonString(Object object, String... reAttrs) {
-        List<String> reAttrList = Arrays.stream(reAttrs).filter(Objects::nonNull).collect(Collectors.toList());
-        PropertyFilter filter = (obj, name, value) -> !reAttrList.contains(name);
-        return JSON.toJSONString(object, filter);
+        if (reAttrs == null || reAttrs.length == 0) {
+            return JSON.toJSONString(object);
+        }
+        return JSON.toJSONString(object, excludeFilter(reAttrs));
     }
 
     public static String paramToString(Object object) {
-        return toJsonString(object, "schema");
+        return JSON.toJSONString(object, SCHEMA_FILTER);
+    }
+
+    /**
+     * 获取删除指定属性的过滤器，按属性组合缓存
+     */
+    static SimplePropertyPreFilter excludeFilter(String... reAttrs) {
+        SimplePropertyPreFilter filter = EXCLUDE_FILTERS.get(Arrays.asList(reAttrs));
+        if (filter != null) {
+            return filter;
+        }
+        filter = new SimplePropertyPreFilter();
+        for (String reAttr : reAttrs) {
+            if (reAttr != null) {
+                filter.getExcludes().add(reAttr);
+            }
+        }
+        if (EXCLUDE_FILTERS.size() < MAX_FILTER_CACHE_SIZE) {
+            // 复制一份作为key，避免调用方修改数组
+            SimplePropertyPreFilter previous = EXCLUDE_FILTERS.putIfAbsent(Arrays.asList(reAttrs.clone()), filter);
+            return previous == null ? filter : previous;
+        }
+        return filter;
     }
 
 
@@ -62,18 +111,28 @@ public class FastJsonUtil {
         if (StringUtils.isEmpty(path) || value == null) {
             return json;
         }
-        String[] keys = null;
-        if (path.contains(".")) {
-            keys = path.split("\\.");
-        } else {
-            keys = new String[]{path};
+        return put(json, CompiledJsonPath.compile(path), value);
+    }
+
+    /**
+     * 根据预编译的path向json加入指定对象
+     * 注意：只支持JSONObject类型
+     *
+     * @param json  原json串
+     * @param path  需要添加的路径
+     * @param value 添加的对象
+     * @return 新json串
+     */
+    public static String put(String json, CompiledJsonPath path, Object value) {
+        if (path == null || value == null) {
+            return json;
         }
         JSONObject preObject = parseObject(json);
-        JSONObject object = getJSONObjectByKeys(preObject, keys);
+        JSONObject object = getJSONObjectByKeys(preObject, path.keys());
         if (object == null) {
             return json;
         }
-        object.put(keys[keys.length - 1], value);
+        object.put(path.lastKey(), value);
         return toJsonString(preObject);
     }
 
@@ -88,18 +147,26 @@ public class FastJsonUtil {
         if (StringUtils.isEmpty(path)) {
             return json;
         }
-        String[] keys = null;
-        if (path.contains(".")) {
-            keys = path.split("\\.");
-        } else {
-            keys = new String[]{path};
+        return remove(json, CompiledJsonPath.compile(path));
+    }
+
+    /**
+     * 根据预编译的path删除指定属性
+     *
+     * @param json 原json串
+     * @param path 需要删除的json路径
+     * @return 新的json串
+     */
+    public static String remove(String json, CompiledJsonPath path) {
+        if (path == null) {
+            return json;
         }
         JSONObject preObject = parseObject(json);
-        JSONObject object = getJSONObjectByKeys(preObject, keys);
+        JSONObject object = getJSONObjectByKeys(preObject, path.keys());
         if (object == null) {
             return json;
         }
-        object.remove(keys[keys.length - 1]);
+        object.remove(path.lastKey());
         return toJsonString(preObject);
     }
 
@@ -114,18 +181,26 @@ public class FastJsonUtil {
         if (StringUtils.isEmpty(path)) {
             return json;
         }
-        String[] keys = null;
-        if (path.contains(".")) {
-            keys = path.split("\\.");
-        } else {
-            keys = new String[]{path};
+        return replace(json, CompiledJsonPath.compile(path), value);
+    }
+
+    /**
+     * 根据预编译的path替换指定属性, 只支持JSONObject
+     *
+     * @param json 原json串
+     * @param path 需要替换的json路径
+     * @return 新的json串
+     */
+    public static String replace(String json, CompiledJsonPath path, Object value) {
+        if (path == null) {
+            return json;
         }
         JSONObject preObject = parseObject(json);
-        JSONObject object = getJSONObjectByKeys(preObject, keys);
+        JSONObject object = getJSONObjectByKeys(preObject, path.keys());
         if (object == null) {
             return json;
         }
-        object.replace(keys[keys.length - 1], value);
+        object.replace(path.lastKey(), value);
         return toJsonString(preObject);
     }
 
@@ -140,29 +215,38 @@ public class FastJsonUtil {
         if (StringUtils.isEmpty(path)) {
             return json;
         }
-        String[] keys = null;
-        if (path.contains(".")) {
-            keys = path.split("\\.");
-        } else {
-            keys = new String[]{path};
+        return replaceNew(json, CompiledJsonPath.compile(path), value);
+    }
+
+    /**
+     * 根据预编译的path替换指定属性, 支持JSONArray，但是不支持路径表达式
+     *
+     * @param json 原json串
+     * @param path 需要替换的json路径
+     * @return 新的json串
+     */
+    public static String replaceNew(String json, CompiledJsonPath path, String value) {
+        if (path == null) {
+            return json;
         }
         List<JSONObject> res = new ArrayList<>();
         JSONObject preObject = parseObject(json);
-        getJSONObjectByKeys(res, preObject, keys, 1);
+        getJSONObjectByKeys(res, preObject, path.keys(), 1);
         if (CollectionUtils.isEmpty(res)) {
             return json;
         }
+        String lastKey = path.lastKey();
         for (int j = 0; j < res.size(); j++) {
-            Object oldValue = res.get(j).get(keys[keys.length - 1]);
+            Object oldValue = res.get(j).get(lastKey);
             if (oldValue == null) {
                 continue;
             }
-            res.get(j).replace(keys[keys.length - 1], String.valueOf(value));
+            res.get(j).replace(lastKey, String.valueOf(value));
         }
         return toJsonString(preObject);
     }
 
-    private static JSONObject getJSONObjectByKeys(JSONObject preObject, String[] keys) {
+    static JSONObject getJSONObjectByKeys(JSONObject preObject, String[] keys) {
         JSONObject object = preObject;
         for (int i = keys[0].equals("$") ? 1 : 0; i < keys.length - 1; i++) {
             if (object != null) {
@@ -173,7 +257,7 @@ public class FastJsonUtil {
     }
 
     // 支持JSONArray
-    private static void getJSONObjectByKeys(List<JSONObject> res, Object object, String[] keys, int index) {
+    static void getJSONObjectByKeys(List<JSONObject> res, Object object, String[] keys, int index) {
         if (object == null || index >= keys.length) {
             return;
         }
@@ -217,6 +301,43 @@ public class FastJsonUtil {
         }
     }
 
+    /**
+     * 流式加密json，逐个token读取并写出，不构建JSONObject，适合很大的json串
+     * 路径规则与encryptJson相同，支持JsonArray；输出保持原来的属性顺序，值为null的属性也会原样保留
+     *
+     * @param json  原json串
+     * @param paths 需要加密的json路径
+     * @return 新的json串
+     */
+    public static String encryptJsonStreaming(String json, List<String> paths) {
+        if (StringUtils.isBlank(json) || CollectionUtils.isEmpty(paths)) {
+            return json;
+        }
+        StringWriter writer = new StringWriter(json.length());
+        try {
+            encryptJson(new StringReader(json), writer, paths);
+        } catch (IOException ex) {
+            throw new JSONException(ex.getMessage(), ex);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * 流式加密json，从reader读取一个json值，加密后写入writer，reader和writer不会被关闭
+     *
+     * @param reader 原json
+     * @param writer 加密后的json
+     * @param paths  需要加密的json路径
+     * @throws IOException 读写失败或者json格式错误
+     */
+    public static void encryptJson(Reader reader, Writer writer, List<String> paths) throws IOException {
+        JsonStreamMasker masker = new JsonStreamMasker(paths == null ? Collections.emptyList() : paths);
+        try (JsonParser parser = JsonStreamMasker.FACTORY.createParser(reader);
+             JsonGenerator generator = JsonStreamMasker.FACTORY.createGenerator(writer)) {
+            masker.mask(parser, generator);
+        }
+    }
+
     /**
      * 加密json，支持JsonArray
      *
@@ -233,12 +354,7 @@ public class FastJsonUtil {
             if (StringUtils.isEmpty(paths[i])) {
                 continue;
             }
-            String[] keys = null;
-            if (paths[i].contains(".")) {
-                keys = paths[i].split("\\.");
-            } else {
-                keys = new String[]{paths[i]};
-            }
+            String[] keys = CompiledJsonPath.compile(paths[i]).keys();
             List<JSONObject> res = new ArrayList<>();
             getJSONObjectByKeys(res, preObject, keys, 1);
             if (CollectionUtils.isEmpty(res)) {
@@ -255,7 +371,7 @@ public class FastJsonUtil {
         return preObject;
     }
 
-    private static String encryptText(String text) {
+    static String encryptText(String text) {
         if (StringUtils.isBlank(text)) {
             return text;
         }
@@ -289,7 +405,26 @@ public class FastJsonUtil {
                 return null;
             }
             JSONObject jsonObject = JSON.parseObject(json);
-            return JSONPath.eval(jsonObject, path);
+            return CompiledJsonPath.compile(path).eval(jsonObject);
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+
+    /**
+     * 根据预编译的path取出结果
+     *
+     * @param json
+     * @param path
+     * @return Object
+     */
+    public static Object eval(String json, CompiledJsonPath path) {
+        try {
+            if (!json.contains("{") || !json.contains("}")) {
+                return null;
+            }
+            JSONObject jsonObject = JSON.parseObject(json);
+            return path.eval(jsonObject);
         } catch (Exception ex) {
             return null;
         }
@@ -297,12 +432,44 @@ public class FastJsonUtil {
 
     public static Object eval(JSONObject jsonObject, String path) {
         try {
-            return JSONPath.eval(jsonObject, path);
+            return CompiledJsonPath.compile(path).eval(jsonObject);
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+
+    public static Object eval(JSONObject jsonObject, CompiledJsonPath path) {
+        try {
+            return path.eval(jsonObject);
         } catch (Exception ex) {
             return null;
         }
     }
 
+    /**
+     * 解析一次json，取出多个path的结果
+     * 同一组path需要反复使用时，可以持有JsonPathExtractor，并通过extractStreaming流式取值
+     *
+     * @param json  json字符串
+     * @param paths 需要的json路径
+     * @return path到结果的映射，按path的顺序排列，不存在的path或者json格式错误时值为null
+     */
+    public static Map<String, Object> evalMany(String json, String... paths) {
+        JsonPathExtractor extractor = JsonPathExtractor.of(paths);
+        try {
+            if (json.contains("{") && json.contains("}")) {
+                return extractor.extract(JSON.parseObject(json));
+            }
+        } catch (Exception ex) {
+            // 与eval一样，解析失败时返回null
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (String path : paths) {
+            result.put(path, null);
+        }
+        return result;
+    }
+
     /**
      * 根据path从json中取出结果并反序列成JavaBean
      *
@@ -321,49 +488,100 @@ public class FastJsonUtil {
         return instanceOf(obj, clz);
     }
 
+    /**
+     * 根据path从JSONObject中取出结果并转换成指定类型
+     * 结果是JSONObject或者JSONArray时返回一份深拷贝，修改返回值不会影响传入的jsonObject
+     *
+     * @param jsonObject 已经解析好的json
+     * @param path       需要的json路径
+     * @param clz        class
+     * @param <T>        具体类型
+     * @return res
+     */
     public static <T> T eval(JSONObject jsonObject, String path, Class<T> clz) {
         Object obj = eval(jsonObject, path);
         if (obj == null) {
             return null;
         }
-        return instanceOf(obj, clz);
+        // 转换成JavaBean等其他类型时本来就会创建新对象，只有直接返回时才需要拷贝
+        return clz.isInstance(obj) ? clz.cast(copyOf(obj)) : instanceOf(obj, clz);
+    }
+
+    /**
+     * 深拷贝JSONObject和JSONArray，其余值原样返回
+     */
+    private static Object copyOf(Object obj) {
+        if (obj instanceof JSONObject) {
+            JSONObject source = (JSONObject) obj;
+            JSONObject copy = new JSONObject(source.size(), source.getInnerMap() instanceof LinkedHashMap);
+            for (Map.Entry<String, Object> entry : source.entrySet()) {
+                copy.put(entry.getKey(), copyOf(entry.getValue()));
+            }
+            return copy;
+        }
+        if (obj instanceof JSONArray) {
+            JSONArray source = (JSONArray) obj;
+            JSONArray copy = new JSONArray(source.size());
+            for (Object element : source) {
+                copy.add(copyOf(element));
+            }
+            return copy;
+        }
+        return obj;
     }
 
+    /**
+     * 把JSONPath取出的结果直接转换成目标类型，不经过序列化再反序列化
+     * JSONObject通过fastjson缓存的JavaBeanDeserializer直接从Map创建JavaBean，数字类型之间直接转换
+     */
+    @SuppressWarnings("unchecked")
     private static <T> T instanceOf(Object obj, Class<T> clz) {
-        if (obj instanceof String) {
-            return valueOf(obj, clz);
-        } else if (obj instanceof Integer) {
-            return valueOf(obj, clz);
-        } else if (obj instanceof Long) {
-            return valueOf(obj, clz);
-        } else if (obj instanceof BigDecimal) {
-            return valueOf(obj, clz);
-        } else if (obj instanceof JSONObject) {
-            return JSONObject.parseObject(JSON.toJSONString(obj), clz);
-        } else if (obj instanceof JSONArray) {
-            return valueOf(obj, clz);
-        } else {
-            return null;
+        if (clz.isInstance(obj)) {
+            return (T) obj;
         }
+        if (obj instanceof JSONObject) {
+            return ((JSONObject) obj).toJavaObject(clz);
+        }
+        return valueOf(obj, clz);
     }
 
+    @SuppressWarnings("unchecked")
     private static <T> T valueOf(Object obj, Class<T> clz) {
         if (clz.equals(Long.class)) {
+            if (obj instanceof Integer || obj instanceof Short || obj instanceof Byte) {
+                return (T) Long.valueOf(((Number) obj).longValue());
+            }
             return (T) Long.valueOf(obj.toString());
         } else if (clz.equals(Integer.class)) {
+            if (obj instanceof Short || obj instanceof Byte) {
+                return (T) Integer.valueOf(((Number) obj).intValue());
+            }
             return (T) Integer.valueOf(obj.toString());
         } else if (clz.equals(String.class)) {
             return (T) obj.toString();
         } else if (clz.equals(Boolean.class)) {
             return (T) Boolean.valueOf(obj.toString());
         } else if (clz.equals(Double.class)) {
+            if (obj instanceof Number) {
+                return (T) Double.valueOf(((Number) obj).doubleValue());
+            }
             return (T) Double.valueOf(obj.toString());
         } else if (clz.equals(Float.class)) {
+            if (obj instanceof Number) {
+                return (T) Float.valueOf(((Number) obj).floatValue());
+            }
             return (T) Float.valueOf(obj.toString());
         } else if (clz.equals(BigDecimal.class)) {
-            return (T) BigDecimal.valueOf(Double.valueOf(obj.toString()));
+            if (obj instanceof Integer || obj instanceof Long || obj instanceof Short || obj instanceof Byte) {
+                return (T) BigDecimal.valueOf(((Number) obj).longValue());
+            }
+            if (obj instanceof BigInteger) {
+                return (T) new BigDecimal((BigInteger) obj);
+            }
+            // 按文本构造，不经过double，避免丢失精度
+            return (T) new BigDecimal(obj.toString());
         } else {
-            return null;
+            return TypeUtils.cast(obj, clz, ParserConfig.getGlobalInstance());
         }
     }
 
@@ -382,7 +600,7 @@ public class FastJsonUtil {
             return null;
         }
         if (obj instanceof JSONArray) {
-            return JSONArray.parseArray(JSON.toJSONString(obj), clz);
+            return ((JSONArray) obj).toJavaList(clz);
         }
         return null;
     }
@@ -411,20 +629,37 @@ public class FastJsonUtil {
 
     /**
      * 获取Json字符串某节点的值
+     * 只在文本上查找顶层的key，不解析整个json，只解析该节点的值
+     * 会扫描完整个顶层对象，key重复时与JSONObject.parseObject一样取最后一个值
      */
     public static String getJsonValue(String jsonStr, String key) {
         if (StringUtils.isEmpty(jsonStr) || StringUtils.isEmpty(key)) {
             return null;
         }
+        int start = JsonKeyScanner.indexOfValue(jsonStr, key);
+        if (start == JsonKeyScanner.NOT_FOUND) {
+            return null;
+        }
+        if (start >= 0) {
+            return JsonKeyScanner.valueAsString(jsonStr, start);
+        }
         JSONObject object = JSONObject.parseObject(jsonStr);
         return object.getString(key);
     }
 
+    /**
+     * 判断Json串的顶层是否包含key，只在文本上查找，找到后立即返回
+     */
     public static boolean containsKey(String jsonStr, String key) {
         boolean result = false;
         if (StringUtils.isEmpty(jsonStr) || StringUtils.isEmpty(key)) {
             return result;
         }
+        // 只判断是否存在，重复的key不影响结果，找到第一个即可停止
+        int start = JsonKeyScanner.scan(jsonStr, key::equals);
+        if (start != JsonKeyScanner.MALFORMED) {
+            return start >= 0;
+        }
         try {
             JSONObject object = JSONObject.parseObject(jsonStr);
             result = object.containsKey(key);
@@ -445,6 +680,11 @@ public class FastJsonUtil {
         if (StringUtils.isEmpty(jsonStr) || keys == null || keys.length == 0) {
             return false;
         }
+        Set<String> remaining = new HashSet<>(Arrays.asList(keys));
+        int start = JsonKeyScanner.scan(jsonStr, name -> remaining.remove(name) && remaining.isEmpty());
+        if (start != JsonKeyScanner.MALFORMED) {
+            return start >= 0;
+        }
         JSONObject object = JSONObject.parseObject(jsonStr);
         return containsKey(object, keys);
     }
@@ -467,6 +707,7 @@ public class FastJsonUtil {
 
     /**
      * 判断是否是Json串
+     * 通过JsonValidator扫描一遍校验语法，不构建对象也不抛出异常，允许单引号和不带引号的key
      *
      * @param str 检测字符串
      * @return bool
@@ -477,15 +718,20 @@ public class FastJsonUtil {
             return false;
         }
 
-        boolean result;
+        return JsonValidator.LENIENT.validate(str);
+    }
 
-        try {
-            JSON.parse(str);
-            result = true;
-        } catch (JSONException e) {
-            result = false;
+    /**
+     * 判断UTF-8编码的字节是否是Json串，不需要先转换成String
+     *
+     * @param utf8 检测的字节
+     * @return bool
+     */
+    public static boolean isJSON(byte[] utf8) {
+        if (utf8 == null || utf8.length == 0) {
+            return false;
         }
-        return result;
+        return JsonValidator.LENIENT.validate(utf8, 0, utf8.length);
     }
 
 }
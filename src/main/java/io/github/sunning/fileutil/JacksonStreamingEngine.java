@@ -0,0 +1,218 @@
+package io.github.sunning.fileutil;
+
+import com.alibaba.fastjson.JSONException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基于jackson-core流式API的json引擎，不依赖jackson-databind
+ * 解析结果为LinkedHashMap和ArrayList，保持原文的属性顺序；数字类型与fastjson一致
+ * eval对$.a.b形式的简单路径在文本上流式查找，跳过无关的子树；key重复时以最后一个为准，与fastjson的解析结果一致；
+ * 路径经过数组或者不是简单路径时，从该位置解析出子树再按JSONPath求值
+ * 脱敏与FastJsonUtil.encryptJsonStreaming一致，值为null的属性会原样保留
+ * 序列化只支持Map、Collection、数组、字符串、数字、布尔、枚举和Date，JavaBean需要使用fastjson引擎
+ **/
+
+final class JacksonStreamingEngine implements JsonEngine {
+
+    static final String NAME = "jackson";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public String toJson(Object value) {
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = JsonStreamMasker.FACTORY.createGenerator(writer)) {
+            write(generator, value);
+        } catch (IOException e) {
+            throw new JSONException(e.getMessage(), e);
+        }
+        return writer.toString();
+    }
+
+    @Override
+    public Object parse(String json) {
+        try (JsonParser parser = JsonStreamMasker.FACTORY.createParser(json)) {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                return null;
+            }
+            Object value = read(parser, token);
+            if (parser.nextToken() != null) {
+                throw new JSONException("unexpected content after json value at " + parser.getTokenLocation());
+            }
+            return value;
+        } catch (IOException e) {
+            throw new JSONException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Object eval(String json, String path) {
+        CompiledJsonPath compiled = CompiledJsonPath.compile(path);
+        String[] keys = compiled.keys();
+        try (JsonParser parser = JsonStreamMasker.FACTORY.createParser(json)) {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                return null;
+            }
+            if (! JsonPathExtractor.isSimple(keys)) {
+                return compiled.eval(read(parser, token));
+            }
+            return seek(parser, token, keys, 1);
+        } catch (IOException e) {
+            throw new JSONException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String mask(String json, List<String> paths) {
+        return FastJsonUtil.encryptJsonStreaming(json, paths);
+    }
+
+    /**
+     * 对parser当前位置的值按keys[k]之后的路径求值，会读完整个值
+     * 同一个属性出现多次时每次都重新求值，后面的结果覆盖前面的结果
+     */
+    private static Object seek(JsonParser parser, JsonToken token, String[] keys, int k) throws IOException {
+        if (k == keys.length) {
+            return read(parser, token);
+        }
+        if (token == JsonToken.START_ARRAY) {
+            // 数组中的每个元素都要继续匹配，交给JSONPath处理
+            return CompiledJsonPath.compile(JsonPathExtractor.rest(keys, k)).eval(read(parser, token));
+        }
+        if (token != JsonToken.START_OBJECT) {
+            return null;
+        }
+        Object value = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken next = parser.nextToken();
+            if (keys[k].equals(field)) {
+                value = seek(parser, next, keys, k + 1);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 读取parser当前位置的值
+     */
+    private static Object read(JsonParser parser, JsonToken token) throws IOException {
+        switch (token) {
+            case START_OBJECT:
+                Map<String, Object> object = new LinkedHashMap<>();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.getCurrentName();
+                    object.put(name, read(parser, parser.nextToken()));
+                }
+                return object;
+            case START_ARRAY:
+                List<Object> array = new ArrayList<>();
+                for (JsonToken next = parser.nextToken(); next != JsonToken.END_ARRAY; next = parser.nextToken()) {
+                    array.add(read(parser, next));
+                }
+                return array;
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+                switch (parser.getNumberType()) {
+                    case INT:
+                        return parser.getIntValue();
+                    case LONG:
+                        return parser.getLongValue();
+                    default:
+                        return parser.getBigIntegerValue();
+                }
+            case VALUE_NUMBER_FLOAT:
+                return new BigDecimal(parser.getText());
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_NULL:
+                return null;
+            default:
+                throw new IOException("unexpected json token " + token + " at " + parser.getTokenLocation());
+        }
+    }
+
+    private static void write(JsonGenerator generator, Object value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof CharSequence || value instanceof Character) {
+            generator.writeString(value.toString());
+        } else if (value instanceof Boolean) {
+            generator.writeBoolean((Boolean) value);
+        } else if (value instanceof Number) {
+            writeNumber(generator, (Number) value);
+        } else if (value instanceof Map) {
+            generator.writeStartObject();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (entry.getValue() != null) {
+                    generator.writeFieldName(String.valueOf(entry.getKey()));
+                    write(generator, entry.getValue());
+                }
+            }
+            generator.writeEndObject();
+        } else if (value instanceof Iterable) {
+            generator.writeStartArray();
+            for (Object element : (Iterable<?>) value) {
+                write(generator, element);
+            }
+            generator.writeEndArray();
+        } else if (value.getClass().isArray()) {
+            generator.writeStartArray();
+            int length = Array.getLength(value);
+            for (int i = 0; i < length; i++) {
+                write(generator, Array.get(value, i));
+            }
+            generator.writeEndArray();
+        } else if (value instanceof Enum) {
+            generator.writeString(((Enum<?>) value).name());
+        } else if (value instanceof Date) {
+            generator.writeNumber(((Date) value).getTime());
+        } else {
+            throw new IllegalArgumentException("jackson engine can not serialize " + value.getClass().getName()
+                    + ", use the fastjson engine for java beans");
+        }
+    }
+
+    private static void writeNumber(JsonGenerator generator, Number number) throws IOException {
+        if (number instanceof BigDecimal) {
+            generator.writeNumber((BigDecimal) number);
+        } else if (number instanceof BigInteger) {
+            generator.writeNumber((BigInteger) number);
+        } else if (number instanceof Double || number instanceof Float) {
+            double d = number.doubleValue();
+            if (Double.isNaN(d) || Double.isInfinite(d)) {
+                // 与fastjson一致，非有限的小数写成null
+                generator.writeNull();
+            } else if (number instanceof Float) {
+                generator.writeNumber(number.floatValue());
+            } else {
+                generator.writeNumber(d);
+            }
+        } else {
+            generator.writeNumber(number.longValue());
+        }
+    }
+}
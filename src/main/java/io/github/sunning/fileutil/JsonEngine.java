@@ -0,0 +1,52 @@
+package io.github.sunning.fileutil;
+
+import java.util.List;
+
+/**
+ * json引擎，FastJsonUtil中常用的序列化、解析、路径取值和脱敏操作的统一接口，可以按业务场景选择不同的实现
+ * 内置的实现通过JsonEngines获取；自定义实现在META-INF/services/io.github.sunning.fileutil.JsonEngine中注册后，
+ * 可以通过JsonEngines.of(name)按名称获取
+ * 实现必须是线程安全的
+ **/
+
+public interface JsonEngine {
+
+    /**
+     * @return 引擎的名称，JsonEngines.of按名称查找时使用
+     */
+    String name();
+
+    /**
+     * 序列化成json串，值为null的属性不会写出
+     * @param value 对象
+     * @return json串
+     * @throws IllegalArgumentException 引擎不支持该类型
+     */
+    String toJson(Object value);
+
+    /**
+     * 解析json，对象为Map，数组为List，整数为Integer、Long或者BigInteger，小数为BigDecimal
+     * @param json json串
+     * @return 解析结果
+     * @throws com.alibaba.fastjson.JSONException json格式错误
+     */
+    Object parse(String json);
+
+    /**
+     * 根据path取值，路径规则与FastJsonUtil.eval一致
+     * @param json json串
+     * @param path json路径
+     * @return 路径的值，不存在时返回null
+     * @throws com.alibaba.fastjson.JSONException json格式错误
+     */
+    Object eval(String json, String path);
+
+    /**
+     * 脱敏json的节点属性，路径规则与FastJsonUtil.encryptJson一致
+     * @param json json串
+     * @param paths 需要脱敏的json路径
+     * @return 新的json串
+     * @throws com.alibaba.fastjson.JSONException json格式错误
+     */
+    String mask(String json, List<String> paths);
+}
@@ -0,0 +1,47 @@
+package io.github.sunning.fileutil;
+
+import java.util.ServiceLoader;
+
+/**
+ * 获取json引擎
+ * 内置fastjson和jackson两个引擎：fastjson支持JavaBean，解析小json时更快；jackson只依赖jackson-core，
+ * 取值时可以跳过无关的子树，适合从大json中取少量的值以及需要保持属性顺序的场景
+ * 不同的数据形态性能差异较大，可以运行test目录中的JsonEngineBenchmark对比后再选择
+ **/
+
+public final class JsonEngines {
+
+    /**
+     * 基于fastjson的引擎
+     */
+    public static final JsonEngine FASTJSON = new FastJsonEngine();
+
+    /**
+     * 基于jackson-core流式API的引擎
+     */
+    public static final JsonEngine JACKSON = new JacksonStreamingEngine();
+
+    private JsonEngines() {
+    }
+
+    /**
+     * 按名称获取引擎，先查找内置的引擎，再通过ServiceLoader查找注册的自定义引擎
+     * @param name 引擎的名称
+     * @return 引擎
+     * @throws IllegalArgumentException 没有该名称的引擎
+     */
+    public static JsonEngine of(String name) {
+        if (FastJsonEngine.NAME.equals(name)) {
+            return FASTJSON;
+        }
+        if (JacksonStreamingEngine.NAME.equals(name)) {
+            return JACKSON;
+        }
+        for (JsonEngine engine : ServiceLoader.load(JsonEngine.class)) {
+            if (engine.name().equals(name)) {
+                return engine;
+            }
+        }
+        throw new IllegalArgumentException("unknown json engine: " + name);
+    }
+}
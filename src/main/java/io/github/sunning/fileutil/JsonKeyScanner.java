@@ -0,0 +1,197 @@
+package io.github.sunning.fileutil;
+
+import com.alibaba.fastjson.JSON;
+
+import java.util.function.Predicate;
+
+/**
+ * 在json文本上直接查找顶层的key，不解析整个json
+ * 嵌套的对象和数组按括号匹配跳过；scan在matcher返回true时立即停止，所以之后的内容不会被校验
+ * 遇到不符合预期的格式（单引号、没有引号的key等fastjson能兼容的写法）时返回MALFORMED，由调用方回退到完整解析
+ * 重复的key时indexOfValue以最后一个为准，与JSONObject.parseObject的结果一致
+ **/
+
+final class JsonKeyScanner {
+
+    /** 顶层对象中没有该key */
+    static final int NOT_FOUND = -1;
+    /** 文本不是预期的格式，需要完整解析 */
+    static final int MALFORMED = -2;
+
+    private JsonKeyScanner() {
+    }
+
+    /**
+     * 查找顶层key对应的值，会扫描完整个顶层对象，key重复时返回最后一个值
+     * @return 值的起始下标，或者NOT_FOUND、MALFORMED
+     */
+    static int indexOfValue(String json, String key) {
+        return scan(json, key::equals, true);
+    }
+
+    /**
+     * 依次访问顶层的key，matcher返回true时停止
+     * @return 停止时值的起始下标；扫描完整个对象时返回NOT_FOUND；格式不符合预期时返回MALFORMED
+     */
+    static int scan(String json, Predicate<String> matcher) {
+        return scan(json, matcher, false);
+    }
+
+    /**
+     * @param last 为true时matcher返回true后继续扫描，返回最后一次匹配的值的起始下标
+     */
+    private static int scan(String json, Predicate<String> matcher, boolean last) {
+        int found = NOT_FOUND;
+        int length = json.length();
+        int i = skipWhitespace(json, 0);
+        if (i >= length || json.charAt(i) != '{') {
+            return MALFORMED;
+        }
+        i = skipWhitespace(json, i + 1);
+        if (i < length && json.charAt(i) == '}') {
+            return found;
+        }
+        while (i < length) {
+            if (json.charAt(i) != '"') {
+                return MALFORMED;
+            }
+            int keyEnd = skipString(json, i);
+            if (keyEnd < 0) {
+                return MALFORMED;
+            }
+            String name = stringValue(json, i, keyEnd);
+            i = skipWhitespace(json, keyEnd);
+            if (i >= length || json.charAt(i) != ':') {
+                return MALFORMED;
+            }
+            int valueStart = skipWhitespace(json, i + 1);
+            if (valueStart >= length) {
+                return MALFORMED;
+            }
+            if (matcher.test(name)) {
+                if (! last) {
+                    return valueStart;
+                }
+                found = valueStart;
+            }
+            int valueEnd = skipValue(json, valueStart);
+            if (valueEnd < 0) {
+                return MALFORMED;
+            }
+            i = skipWhitespace(json, valueEnd);
+            if (i >= length) {
+                return MALFORMED;
+            }
+            char c = json.charAt(i);
+            if (c == '}') {
+                return found;
+            }
+            if (c != ',') {
+                return MALFORMED;
+            }
+            i = skipWhitespace(json, i + 1);
+        }
+        return MALFORMED;
+    }
+
+    /**
+     * 把从start开始的值转换成字符串，与JSONObject.getString的结果一致
+     * @return 字符串，值为null时返回null；格式不符合预期时抛出JSONException
+     */
+    static String valueAsString(String json, int start) {
+        char c = json.charAt(start);
+        if (c == '"') {
+            int end = skipString(json, start);
+            return end < 0 ? (String) JSON.parse(json.substring(start)) : stringValue(json, start, end);
+        }
+        int end = skipValue(json, start);
+        String text = json.substring(start, end < 0 ? json.length() : end);
+        Object value = JSON.parse(text);
+        return value == null ? null : value.toString();
+    }
+
+    /**
+     * 跳过从start开始的一个值（字符串、对象、数组或字面量）
+     * @return 值结束后的下标，格式不符合预期时返回MALFORMED
+     */
+    static int skipValue(String json, int start) {
+        char c = json.charAt(start);
+        if (c == '"') {
+            return skipString(json, start);
+        }
+        int length = json.length();
+        if (c == '{' || c == '[') {
+            int depth = 0;
+            for (int i = start; i < length; i++) {
+                c = json.charAt(i);
+                if (c == '"') {
+                    i = skipString(json, i);
+                    if (i < 0) {
+                        return MALFORMED;
+                    }
+                    i--;
+                } else if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    if (--depth == 0) {
+                        return i + 1;
+                    }
+                }
+            }
+            return MALFORMED;
+        }
+        int i = start;
+        while (i < length) {
+            c = json.charAt(i);
+            if (c == ',' || c == '}' || c == ']' || isWhitespace(c)) {
+                break;
+            }
+            if (c == '"' || c == '\'' || c == '{' || c == '[' || c == ':') {
+                return MALFORMED;
+            }
+            i++;
+        }
+        return i == start ? MALFORMED : i;
+    }
+
+    /**
+     * 跳过从start（双引号）开始的字符串
+     * @return 结束双引号之后的下标，字符串没有结束时返回MALFORMED
+     */
+    private static int skipString(String json, int start) {
+        int length = json.length();
+        for (int i = start + 1; i < length; i++) {
+            char c = json.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '"') {
+                return i + 1;
+            }
+        }
+        return MALFORMED;
+    }
+
+    /**
+     * 字符串的值，没有转义字符时直接截取
+     */
+    private static String stringValue(String json, int start, int end) {
+        for (int i = start + 1; i < end - 1; i++) {
+            if (json.charAt(i) == '\\') {
+                return (String) JSON.parse(json.substring(start, end));
+            }
+        }
+        return json.substring(start + 1, end - 1);
+    }
+
+    private static int skipWhitespace(String json, int i) {
+        int length = json.length();
+        while (i < length && isWhitespace(json.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+    }
+}
@@ -0,0 +1,182 @@
+package io.github.sunning.fileutil;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONException;
+import com.google.common.base.Charsets;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * 逐行读取JSON Lines（每行一个json）文件，并反序列化成指定类型
+ * 读取线程按批读取文本行，反序列化交给线程池并行执行，返回的顺序与文件中的行顺序一致；
+ * 同时在处理中的批次数不超过parallelism，内存占用与文件大小无关
+ * 空行会被跳过，gzip压缩的文件会自动解压
+ * 非线程安全，使用完毕后需要close，推荐使用try-with-resources
+ **/
+
+public class JsonLinesReader<T> implements Iterator<T>, Closeable {
+
+    /**
+     * 默认每批的行数
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    private final BufferedReader reader;
+    private final Class<T> clazz;
+    private final int batchSize;
+    private final int parallelism;
+    private final ForkJoinPool pool;
+    private final Deque<Future<List<T>>> inFlight = new ArrayDeque<>();
+    private Iterator<T> current = Collections.emptyIterator();
+    private long lineNumber;
+    private boolean eof;
+
+    /**
+     * 以UTF-8编码读取文件，使用公共线程池并行反序列化
+     * @param filePath 文件的路径
+     * @param clazz 每一行反序列化的类型，JSONObject.class表示不转换成JavaBean
+     * @throws IOException exception
+     */
+    public JsonLinesReader(String filePath, Class<T> clazz) throws IOException {
+        this(new FileInputStream(filePath), Charsets.UTF_8, clazz, DEFAULT_BATCH_SIZE,
+                ForkJoinPool.commonPool().getParallelism(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param inputStream stream，close时会被关闭
+     * @param charset 文件的编码
+     * @param clazz 每一行反序列化的类型
+     * @param batchSize 每批的行数
+     * @param parallelism 同时反序列化的批次数，为1时在读取线程中直接反序列化
+     * @param pool 反序列化的线程池
+     * @throws IOException exception
+     */
+    public JsonLinesReader(InputStream inputStream, Charset charset, Class<T> clazz, int batchSize, int parallelism,
+                           ForkJoinPool pool) throws IOException {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        try {
+            this.reader = new BufferedReader(new InputStreamReader(CsvUtil.decompressIfGzip(inputStream), charset), 64 * 1024);
+        } catch (IOException | RuntimeException e) {
+            inputStream.close();
+            throw e;
+        }
+        this.clazz = clazz;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.pool = pool;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (! current.hasNext()) {
+            try {
+                fill();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (inFlight.isEmpty()) {
+                return false;
+            }
+            current = await(inFlight.poll()).iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (! hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    /**
+     * 读取后续的批次，直到处理中的批次数达到parallelism或者文件结束
+     */
+    private void fill() throws IOException {
+        while (! eof && inFlight.size() < parallelism) {
+            List<String> lines = new ArrayList<>(batchSize);
+            long[] numbers = new long[batchSize];
+            String line;
+            while (lines.size() < batchSize && (line = reader.readLine()) != null) {
+                lineNumber++;
+                if (! line.trim().isEmpty()) {
+                    numbers[lines.size()] = lineNumber;
+                    lines.add(line);
+                }
+            }
+            if (lines.size() < batchSize) {
+                eof = true;
+            }
+            if (lines.isEmpty()) {
+                return;
+            }
+            if (parallelism == 1) {
+                inFlight.add(CompletableFuture.completedFuture(decode(lines, numbers)));
+            } else {
+                inFlight.add(pool.submit(() -> decode(lines, numbers)));
+            }
+        }
+    }
+
+    private List<T> decode(List<String> lines, long[] numbers) {
+        List<T> records = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            try {
+                records.add(JSON.parseObject(lines.get(i), clazz));
+            } catch (RuntimeException e) {
+                throw new JSONException("can not parse json line " + numbers[i] + ": " + e.getMessage(), e);
+            }
+        }
+        return records;
+    }
+
+    private static <R> R await(Future<R> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Future<List<T>> future : inFlight) {
+            future.cancel(true);
+        }
+        inFlight.clear();
+        current = Collections.emptyIterator();
+        eof = true;
+        reader.close();
+    }
+}
@@ -0,0 +1,108 @@
+package io.github.sunning.fileutil;
+
+import com.alibaba.fastjson.JSON;
+import com.google.common.base.Charsets;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 以JSON Lines格式（每行一个json）写入记录，可以持续追加任意多条记录而不需要先把数据放进List
+ * 每条记录用fastjson序列化后写入缓冲区，缓冲区写满后才写入文件；写出的文件可以被JsonLinesReader原样读回
+ * 文件名以.gz结尾时以gzip格式边写边压缩
+ * 非线程安全，使用完毕后需要close
+ **/
+
+public class JsonLinesWriter implements Closeable, Flushable {
+
+    /**
+     * 默认的缓冲区大小
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+    private static final String GZIP_SUFFIX = ".gz";
+
+    private final BufferedWriter writer;
+    private boolean closed;
+
+    /**
+     * 以UTF-8编码写入文件
+     * @param filePath 写入的文件的路径，以.gz结尾时以gzip格式压缩写入
+     * @param append 是否以追加的方式写入（追加：append为true, 覆盖：append为false）
+     * @throws IOException exception
+     */
+    public JsonLinesWriter(String filePath, boolean append) throws IOException {
+        this(open(filePath, append), Charsets.UTF_8);
+    }
+
+    /**
+     * @param outputStream stream，close时会被关闭
+     * @param charset 写入的编码
+     */
+    public JsonLinesWriter(OutputStream outputStream, Charset charset) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, charset), DEFAULT_BUFFER_SIZE);
+    }
+
+    private static OutputStream open(String filePath, boolean append) throws IOException {
+        OutputStream out = new FileOutputStream(filePath, append);
+        if (filePath.endsWith(GZIP_SUFFIX)) {
+            // 追加写入时会在文件末尾新增一个gzip成员，GZIPInputStream可以连续读取多个成员
+            return new GZIPOutputStream(out, 64 * 1024);
+        }
+        return out;
+    }
+
+    /**
+     * 写入一条记录，序列化规则与FastJsonUtil.toJsonString一致，值为null的属性不会写出
+     * @param record 记录，不能为null
+     * @throws IOException exception
+     */
+    public void write(Object record) throws IOException {
+        ensureOpen();
+        if (record == null) {
+            throw new IllegalArgumentException("record must not be null");
+        }
+        JSON.writeJSONString(writer, record);
+        writer.write('\n');
+    }
+
+    /**
+     * 写入所有记录
+     * @param records 记录
+     * @throws IOException exception
+     */
+    public void writeAll(Iterator<?> records) throws IOException {
+        while (records.hasNext()) {
+            write(records.next());
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        writer.close();
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("json lines writer is closed");
+        }
+    }
+}
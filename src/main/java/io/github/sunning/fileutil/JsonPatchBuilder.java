@@ -0,0 +1,140 @@
+package io.github.sunning.fileutil;
+
+import com.alibaba.fastjson.JSONObject;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量修改json，收集多个put、remove、replace、replaceNew、mask操作，只解析一次、序列化一次
+ * 每个操作的语义与FastJsonUtil中同名方法一致，按添加的顺序执行，路径不存在的操作会被跳过
+ * 构建好的JsonPatchBuilder可以重复用于多个json，线程安全（构建完成后不要再添加操作）
+ * <pre>
+ *     JsonPatchBuilder patch = new JsonPatchBuilder()
+ *             .put("$.header.traceId", traceId)
+ *             .remove("$.body.password")
+ *             .mask("$.body.cards.number");
+ *     String newJson = patch.apply(json);
+ * </pre>
+ **/
+
+public final class JsonPatchBuilder {
+
+    private final List<Operation> operations = new ArrayList<>();
+
+    /**
+     * 根据path加入指定对象，只支持JSONObject，value为null时忽略该操作
+     */
+    public JsonPatchBuilder put(String path, Object value) {
+        if (value == null) {
+            return this;
+        }
+        CompiledJsonPath compiled = CompiledJsonPath.compile(path);
+        operations.add(root -> {
+            JSONObject object = FastJsonUtil.getJSONObjectByKeys(root, compiled.keys());
+            if (object != null) {
+                object.put(compiled.lastKey(), value);
+            }
+        });
+        return this;
+    }
+
+    /**
+     * 根据path删除指定属性
+     */
+    public JsonPatchBuilder remove(String path) {
+        CompiledJsonPath compiled = CompiledJsonPath.compile(path);
+        operations.add(root -> {
+            JSONObject object = FastJsonUtil.getJSONObjectByKeys(root, compiled.keys());
+            if (object != null) {
+                object.remove(compiled.lastKey());
+            }
+        });
+        return this;
+    }
+
+    /**
+     * 根据path替换指定属性，只支持JSONObject，属性不存在时不会加入
+     */
+    public JsonPatchBuilder replace(String path, Object value) {
+        CompiledJsonPath compiled = CompiledJsonPath.compile(path);
+        operations.add(root -> {
+            JSONObject object = FastJsonUtil.getJSONObjectByKeys(root, compiled.keys());
+            if (object != null) {
+                object.replace(compiled.lastKey(), value);
+            }
+        });
+        return this;
+    }
+
+    /**
+     * 根据path替换指定属性，支持JSONArray，只替换非null的属性
+     */
+    public JsonPatchBuilder replaceNew(String path, String value) {
+        String text = String.valueOf(value);
+        return forEachValue(path, (object, key, oldValue) -> object.replace(key, text));
+    }
+
+    /**
+     * 根据path对属性脱敏，支持JSONArray，规则与FastJsonUtil.encryptJson一致
+     */
+    public JsonPatchBuilder mask(String path) {
+        return forEachValue(path, (object, key, oldValue) -> object.replace(key, FastJsonUtil.encryptText(String.valueOf(oldValue))));
+    }
+
+    /**
+     * 解析json，执行所有操作后再序列化
+     * @param json 原json串
+     * @return 新的json串，json为空时原样返回
+     */
+    public String apply(String json) {
+        if (StringUtils.isBlank(json)) {
+            return json;
+        }
+        return FastJsonUtil.toJsonString(apply(FastJsonUtil.parseObject(json)));
+    }
+
+    /**
+     * 在已经解析好的对象上执行所有操作
+     * @param root 会被直接修改
+     * @return root
+     */
+    public JSONObject apply(JSONObject root) {
+        if (root == null) {
+            return null;
+        }
+        for (Operation operation : operations) {
+            operation.apply(root);
+        }
+        return root;
+    }
+
+    public int size() {
+        return operations.size();
+    }
+
+    private JsonPatchBuilder forEachValue(String path, ValueOperation operation) {
+        CompiledJsonPath compiled = CompiledJsonPath.compile(path);
+        operations.add(root -> {
+            List<JSONObject> res = new ArrayList<>();
+            FastJsonUtil.getJSONObjectByKeys(res, root, compiled.keys(), 1);
+            String key = compiled.lastKey();
+            for (JSONObject object : res) {
+                Object oldValue = object.get(key);
+                if (oldValue != null) {
+                    operation.apply(object, key, oldValue);
+                }
+            }
+        });
+        return this;
+    }
+
+    private interface Operation {
+        void apply(JSONObject root);
+    }
+
+    private interface ValueOperation {
+        void apply(JSONObject object, String key, Object oldValue);
+    }
+}
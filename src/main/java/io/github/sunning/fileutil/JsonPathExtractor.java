@@ -0,0 +1,240 @@
+package io.github.sunning.fileutil;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONException;
+import com.alibaba.fastjson.JSONObject;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 从同一个json中一次取出多个路径的值，路径只编译一次，构建好的JsonPathExtractor可以重复使用，线程安全
+ * extract解析一次json后对每个路径求值；extractStreaming在文本上流式扫描，不构建整个json的对象树，
+ * 无关的子树直接跳过，只有命中的值才会被解析；key重复时以最后一个为准，所以会扫描完整个json，结果与解析整个json一致
+ * 流式扫描只支持$.a.b形式的简单路径，路径经过数组时从该数组开始按JSONPath求值；
+ * 其余路径（过滤、下标、通配符等）会回退到解析整个json
+ * <pre>
+ *     JsonPathExtractor extractor = JsonPathExtractor.of("$.user.id", "$.order.amount");
+ *     Map&lt;String, Object&gt; values = extractor.extractStreaming(json);
+ * </pre>
+ **/
+
+public final class JsonPathExtractor {
+
+    private final String[] paths;
+    private final CompiledJsonPath[] compiled;
+    /** 简单路径组成的前缀树 */
+    private final Node root = new Node(0);
+    private final int simpleCount;
+
+    private JsonPathExtractor(String[] paths) {
+        this.paths = paths;
+        this.compiled = new CompiledJsonPath[paths.length];
+        int simple = 0;
+        for (int i = 0; i < paths.length; i++) {
+            compiled[i] = CompiledJsonPath.compile(paths[i]);
+            String[] keys = compiled[i].keys();
+            if (! isSimple(keys)) {
+                continue;
+            }
+            Node node = root;
+            for (int k = 1; k < keys.length; k++) {
+                int level = k;
+                node = node.children.computeIfAbsent(keys[k], key -> new Node(level));
+                node.paths.add(i);
+            }
+            node.terminal = true;
+            simple++;
+        }
+        this.simpleCount = simple;
+    }
+
+    /**
+     * @param paths json路径，不能为空
+     * @return JsonPathExtractor
+     */
+    public static JsonPathExtractor of(String... paths) {
+        if (paths == null || paths.length == 0) {
+            throw new IllegalArgumentException("json paths must not be empty");
+        }
+        return new JsonPathExtractor(paths.clone());
+    }
+
+    public static JsonPathExtractor of(Collection<String> paths) {
+        return of(paths.toArray(new String[0]));
+    }
+
+    /**
+     * 解析一次json，依次对每个路径求值
+     * @param json json串
+     * @return 路径到值的映射，按路径的顺序排列，不存在的路径值为null
+     */
+    public Map<String, Object> extract(String json) {
+        return extract(JSON.parse(json));
+    }
+
+    /**
+     * 对已经解析好的对象依次求值
+     */
+    public Map<String, Object> extract(Object root) {
+        Object[] values = new Object[paths.length];
+        for (int i = 0; i < paths.length; i++) {
+            values[i] = compiled[i].eval(root);
+        }
+        return toMap(values);
+    }
+
+    /**
+     * 流式扫描json取出所有路径的值，非简单路径或者根节点不是对象时回退到解析整个json
+     * @param json json串
+     * @return 路径到值的映射，按路径的顺序排列，不存在的路径值为null
+     * @throws JSONException json格式错误
+     */
+    public Map<String, Object> extractStreaming(String json) {
+        Object[] values = new Object[paths.length];
+        boolean[] done = new boolean[paths.length];
+        boolean fallback = simpleCount < paths.length;
+        if (simpleCount > 0) {
+            try (JsonParser parser = JsonStreamMasker.FACTORY.createParser(json)) {
+                if (parser.nextToken() == JsonToken.START_OBJECT) {
+                    walk(parser, json, root, values, done);
+                } else {
+                    fallback = true;
+                }
+            } catch (IOException e) {
+                throw new JSONException(e.getMessage(), e);
+            }
+        }
+        if (fallback) {
+            Object tree = JSON.parse(json);
+            for (int i = 0; i < paths.length; i++) {
+                if (! done[i]) {
+                    values[i] = compiled[i].eval(tree);
+                }
+            }
+        }
+        return toMap(values);
+    }
+
+    /**
+     * 扫描当前对象，parser位于START_OBJECT
+     * key重复时后面的值会整个替换前面的值，所以每次命中都先清空经过该节点的路径已经取到的值
+     */
+    private void walk(JsonParser parser, String json, Node node, Object[] values, boolean[] done) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            Node child = node.children.get(parser.getCurrentName());
+            JsonToken token = parser.nextToken();
+            if (child == null) {
+                parser.skipChildren();
+                continue;
+            }
+            for (int index : child.paths) {
+                values[index] = null;
+                done[index] = true;
+            }
+            if (token == JsonToken.START_OBJECT && ! child.terminal) {
+                walk(parser, json, child, values, done);
+                continue;
+            }
+            Object value = readValue(parser, json, token);
+            for (int index : child.paths) {
+                String[] keys = compiled[index].keys();
+                if (keys.length == child.level + 1) {
+                    values[index] = value;
+                } else if (value instanceof JSONObject || value instanceof JSONArray) {
+                    values[index] = CompiledJsonPath.compile(rest(keys, child.level + 1)).eval(value);
+                }
+            }
+        }
+    }
+
+    /**
+     * 读取当前的值，与fastjson解析的类型一致：整数为Integer、Long或者BigInteger，小数为BigDecimal，对象和数组只解析这一段文本
+     */
+    private static Object readValue(JsonParser parser, String json, JsonToken token) throws IOException {
+        switch (token) {
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+                switch (parser.getNumberType()) {
+                    case INT:
+                        return parser.getIntValue();
+                    case LONG:
+                        return parser.getLongValue();
+                    default:
+                        return parser.getBigIntegerValue();
+                }
+            case VALUE_NUMBER_FLOAT:
+                return new BigDecimal(parser.getText());
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case START_OBJECT:
+            case START_ARRAY:
+                int start = (int) parser.getTokenLocation().getCharOffset();
+                parser.skipChildren();
+                int end = (int) parser.getTokenLocation().getCharOffset() + 1;
+                return JSON.parse(json.substring(start, end));
+            default:
+                return null;
+        }
+    }
+
+    private Map<String, Object> toMap(Object[] values) {
+        Map<String, Object> result = new LinkedHashMap<>(paths.length * 2);
+        for (int i = 0; i < paths.length; i++) {
+            result.put(paths[i], values[i]);
+        }
+        return result;
+    }
+
+    static String rest(String[] keys, int from) {
+        return "$." + String.join(".", Arrays.asList(keys).subList(from, keys.length));
+    }
+
+    /**
+     * $开头并且每一段都是普通属性名的路径
+     */
+    static boolean isSimple(String[] keys) {
+        if (keys.length < 2 || ! "$".equals(keys[0])) {
+            return false;
+        }
+        for (int i = 1; i < keys.length; i++) {
+            String key = keys[i];
+            if (key.isEmpty()) {
+                return false;
+            }
+            for (int j = 0; j < key.length(); j++) {
+                if ("[]*()?@'\"\\ ,:=<>!&|".indexOf(key.charAt(j)) >= 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static final class Node {
+        /** 该节点对应路径中的第几个key */
+        private final int level;
+        private final Map<String, Node> children = new HashMap<>();
+        /** 经过该节点的路径下标 */
+        private final List<Integer> paths = new ArrayList<>();
+        /** 是否有路径在该节点结束 */
+        private boolean terminal;
+
+        private Node(int level) {
+            this.level = level;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package io.github.sunning.fileutil;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 流式脱敏json，逐个token读取并直接写出，不构建JSONObject
+ * 路径的规则与FastJsonUtil.encryptJson一致：第一个key（一般是$）表示根节点，遇到数组时对每个元素继续匹配，
+ * 匹配到的非null值按encryptText脱敏后以字符串写出，对象和数组先序列化成文本再脱敏
+ * 数字按原文写出，不经过double转换
+ **/
+
+final class JsonStreamMasker {
+
+    static final JsonFactory FACTORY = new JsonFactory()
+            .enable(JsonParser.Feature.ALLOW_SINGLE_QUOTES)
+            .enable(JsonParser.Feature.ALLOW_UNQUOTED_FIELD_NAMES)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+
+    private final Node root = new Node();
+
+    JsonStreamMasker(Collection<String> paths) {
+        for (String path : paths) {
+            if (path == null || path.isEmpty()) {
+                continue;
+            }
+            String[] keys = CompiledJsonPath.compile(path).keys();
+            if (keys.length < 2) {
+                continue;
+            }
+            Node node = root;
+            for (int i = 1; i < keys.length; i++) {
+                node = node.children.computeIfAbsent(keys[i], key -> new Node());
+            }
+            node.terminal = true;
+        }
+    }
+
+    /**
+     * 从parser读取一个完整的json值，脱敏后写入generator
+     */
+    void mask(JsonParser parser, JsonGenerator generator) throws IOException {
+        if (parser.nextToken() == null) {
+            return;
+        }
+        copy(parser, generator, root.children.isEmpty() ? null : root);
+    }
+
+    /**
+     * 复制parser当前位置的值，node为null时表示该子树不会再匹配到任何路径
+     */
+    private static void copy(JsonParser parser, JsonGenerator generator, Node node) throws IOException {
+        JsonToken token = parser.getCurrentToken();
+        switch (token) {
+            case START_OBJECT:
+                generator.writeStartObject();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.getCurrentName();
+                    generator.writeFieldName(name);
+                    JsonToken value = parser.nextToken();
+                    Node child = node == null ? null : node.children.get(name);
+                    if (child != null && child.terminal && value != JsonToken.VALUE_NULL) {
+                        writeMasked(parser, generator);
+                    } else {
+                        copy(parser, generator, child == null || child.children.isEmpty() ? null : child);
+                    }
+                }
+                generator.writeEndObject();
+                break;
+            case START_ARRAY:
+                generator.writeStartArray();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    // 数组中的元素继续匹配同一层的路径
+                    copy(parser, generator, node);
+                }
+                generator.writeEndArray();
+                break;
+            case VALUE_STRING:
+                generator.writeString(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                break;
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                generator.writeNumber(parser.getText());
+                break;
+            case VALUE_TRUE:
+                generator.writeBoolean(true);
+                break;
+            case VALUE_FALSE:
+                generator.writeBoolean(false);
+                break;
+            case VALUE_NULL:
+                generator.writeNull();
+                break;
+            default:
+                throw new IOException("unexpected json token " + token + " at " + parser.getCurrentLocation());
+        }
+    }
+
+    private static void writeMasked(JsonParser parser, JsonGenerator generator) throws IOException {
+        String text;
+        if (parser.getCurrentToken().isStructStart()) {
+            StringWriter writer = new StringWriter();
+            try (JsonGenerator sub = FACTORY.createGenerator(writer)) {
+                copy(parser, sub, null);
+            }
+            text = writer.toString();
+        } else {
+            text = parser.getText();
+        }
+        generator.writeString(FastJsonUtil.encryptText(text));
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private boolean terminal;
+    }
+}
@@ -0,0 +1,468 @@
+package io.github.sunning.fileutil;
+
+/**
+ * json语法校验，对字符或者UTF-8字节扫描一遍，不构建对象，非法时返回false而不是抛出异常
+ * 严格模式按RFC 8259校验；宽松模式额外允许单引号字符串、不带引号的key、末尾多余的逗号和字符串中的控制字符，
+ * 但不接受fastjson能容忍的缺少逗号、NaN、undefined等写法
+ * 嵌套层数超过maxDepth时视为非法，避免恶意构造的深层嵌套导致栈溢出
+ **/
+
+public final class JsonValidator {
+
+    /**
+     * 默认允许的最大嵌套层数
+     */
+    public static final int DEFAULT_MAX_DEPTH = 512;
+
+    /**
+     * 严格模式
+     */
+    public static final JsonValidator STRICT = new JsonValidator(DEFAULT_MAX_DEPTH, false);
+
+    /**
+     * 宽松模式，FastJsonUtil.isJSON使用
+     */
+    public static final JsonValidator LENIENT = new JsonValidator(DEFAULT_MAX_DEPTH, true);
+
+    private final int maxDepth;
+    private final boolean lenient;
+
+    /**
+     * @param maxDepth 允许的最大嵌套层数
+     * @param lenient 是否使用宽松模式
+     */
+    public JsonValidator(int maxDepth, boolean lenient) {
+        if (maxDepth <= 0) {
+            throw new IllegalArgumentException("maxDepth must be positive: " + maxDepth);
+        }
+        this.maxDepth = maxDepth;
+        this.lenient = lenient;
+    }
+
+    /**
+     * 按严格模式校验
+     */
+    public static boolean isValid(CharSequence text) {
+        return STRICT.validate(text);
+    }
+
+    /**
+     * 按严格模式校验UTF-8编码的json
+     */
+    public static boolean isValid(byte[] utf8) {
+        return utf8 != null && STRICT.validate(utf8, 0, utf8.length);
+    }
+
+    /**
+     * @param text json文本
+     * @return 是否是一个完整的json值，前后可以有空白，开头可以有BOM
+     */
+    public boolean validate(CharSequence text) {
+        if (text == null) {
+            return false;
+        }
+        CharCursor cursor = new CharCursor(text);
+        if (cursor.end > 0 && text.charAt(0) == '\uFEFF') {
+            cursor.pos++;
+        }
+        return validate(cursor);
+    }
+
+    /**
+     * @param utf8 UTF-8编码的json，非法的UTF-8编码也视为非法
+     * @param offset 起始下标
+     * @param length 长度
+     * @return 是否是一个完整的json值，前后可以有空白，开头可以有BOM
+     */
+    public boolean validate(byte[] utf8, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > utf8.length) {
+            throw new IllegalArgumentException("offset " + offset + " and length " + length
+                    + " out of bounds for " + utf8.length + " bytes");
+        }
+        ByteCursor cursor = new ByteCursor(utf8, offset, offset + length);
+        if (length >= 3 && utf8[offset] == (byte) 0xEF && utf8[offset + 1] == (byte) 0xBB && utf8[offset + 2] == (byte) 0xBF) {
+            // UTF-8的BOM
+            cursor.pos += 3;
+        }
+        return validate(cursor);
+    }
+
+    private boolean validate(Cursor c) {
+        skipWhitespace(c);
+        if (! value(c, 0)) {
+            return false;
+        }
+        skipWhitespace(c);
+        return c.pos == c.end;
+    }
+
+    private boolean value(Cursor c, int depth) {
+        if (c.pos >= c.end) {
+            return false;
+        }
+        int ch = c.at(c.pos);
+        switch (ch) {
+            case '{':
+                return object(c, depth + 1);
+            case '[':
+                return array(c, depth + 1);
+            case '"':
+                return string(c, '"');
+            case '\'':
+                return lenient && string(c, '\'');
+            case 't':
+                return literal(c, "true");
+            case 'f':
+                return literal(c, "false");
+            case 'n':
+                return literal(c, "null");
+            default:
+                return (ch == '-' || (ch >= '0' && ch <= '9')) && number(c);
+        }
+    }
+
+    private boolean object(Cursor c, int depth) {
+        if (depth > maxDepth) {
+            return false;
+        }
+        c.pos++;
+        skipWhitespace(c);
+        if (c.pos < c.end && c.at(c.pos) == '}') {
+            c.pos++;
+            return true;
+        }
+        while (c.pos < c.end) {
+            int ch = c.at(c.pos);
+            boolean key;
+            if (ch == '"') {
+                key = string(c, '"');
+            } else if (lenient && ch == '\'') {
+                key = string(c, '\'');
+            } else {
+                key = lenient && identifier(c);
+            }
+            if (! key) {
+                return false;
+            }
+            skipWhitespace(c);
+            if (c.pos >= c.end || c.at(c.pos) != ':') {
+                return false;
+            }
+            c.pos++;
+            skipWhitespace(c);
+            if (! value(c, depth)) {
+                return false;
+            }
+            skipWhitespace(c);
+            if (c.pos >= c.end) {
+                return false;
+            }
+            ch = c.at(c.pos++);
+            if (ch == '}') {
+                return true;
+            }
+            if (ch != ',') {
+                return false;
+            }
+            skipWhitespace(c);
+            if (lenient && c.pos < c.end && c.at(c.pos) == '}') {
+                c.pos++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean array(Cursor c, int depth) {
+        if (depth > maxDepth) {
+            return false;
+        }
+        c.pos++;
+        skipWhitespace(c);
+        if (c.pos < c.end && c.at(c.pos) == ']') {
+            c.pos++;
+            return true;
+        }
+        while (c.pos < c.end) {
+            if (! value(c, depth)) {
+                return false;
+            }
+            skipWhitespace(c);
+            if (c.pos >= c.end) {
+                return false;
+            }
+            int ch = c.at(c.pos++);
+            if (ch == ']') {
+                return true;
+            }
+            if (ch != ',') {
+                return false;
+            }
+            skipWhitespace(c);
+            if (lenient && c.pos < c.end && c.at(c.pos) == ']') {
+                c.pos++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean string(Cursor c, int quote) {
+        c.pos++;
+        while (c.pos < c.end) {
+            c.skipPlain(quote);
+            if (c.pos >= c.end) {
+                return false;
+            }
+            int ch = c.at(c.pos);
+            if (ch == quote) {
+                c.pos++;
+                return true;
+            }
+            if (ch == '\\') {
+                if (++c.pos >= c.end) {
+                    return false;
+                }
+                int escaped = c.at(c.pos);
+                if (escaped == 'u') {
+                    for (int i = 0; i < 4; i++) {
+                        if (++c.pos >= c.end || ! isHex(c.at(c.pos))) {
+                            return false;
+                        }
+                    }
+                } else if (! isEscape(escaped) && ! (lenient && escaped == '\'')) {
+                    return false;
+                }
+                c.pos++;
+            } else if (ch < 0x20) {
+                if (! lenient) {
+                    return false;
+                }
+                c.pos++;
+            } else if (ch >= 0x80) {
+                if (! c.skipNonAscii()) {
+                    return false;
+                }
+            } else {
+                c.pos++;
+            }
+        }
+        return false;
+    }
+
+    private static boolean identifier(Cursor c) {
+        int start = c.pos;
+        while (c.pos < c.end) {
+            int ch = c.at(c.pos);
+            if ((ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z') || (ch >= '0' && ch <= '9') || ch == '_' || ch == '$') {
+                c.pos++;
+            } else {
+                break;
+            }
+        }
+        return c.pos > start;
+    }
+
+    private static boolean number(Cursor c) {
+        if (c.at(c.pos) == '-') {
+            c.pos++;
+        }
+        if (c.pos >= c.end) {
+            return false;
+        }
+        int ch = c.at(c.pos);
+        if (ch == '0') {
+            c.pos++;
+        } else if (! digits(c)) {
+            return false;
+        }
+        if (c.pos < c.end && c.at(c.pos) == '.') {
+            c.pos++;
+            if (! digits(c)) {
+                return false;
+            }
+        }
+        if (c.pos < c.end && (c.at(c.pos) == 'e' || c.at(c.pos) == 'E')) {
+            c.pos++;
+            if (c.pos < c.end && (c.at(c.pos) == '+' || c.at(c.pos) == '-')) {
+                c.pos++;
+            }
+            return digits(c);
+        }
+        return true;
+    }
+
+    private static boolean digits(Cursor c) {
+        int start = c.pos;
+        while (c.pos < c.end && c.at(c.pos) >= '0' && c.at(c.pos) <= '9') {
+            c.pos++;
+        }
+        return c.pos > start;
+    }
+
+    private static boolean literal(Cursor c, String literal) {
+        int length = literal.length();
+        if (c.end - c.pos < length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (c.at(c.pos + i) != literal.charAt(i)) {
+                return false;
+            }
+        }
+        c.pos += length;
+        return true;
+    }
+
+    private static void skipWhitespace(Cursor c) {
+        while (c.pos < c.end) {
+            int ch = c.at(c.pos);
+            if (ch == ' ' || ch == '\n' || ch == '\r' || ch == '\t') {
+                c.pos++;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static boolean isEscape(int ch) {
+        return ch == '"' || ch == '\\' || ch == '/' || ch == 'b' || ch == 'f' || ch == 'n' || ch == 'r' || ch == 't';
+    }
+
+    private static boolean isHex(int ch) {
+        return (ch >= '0' && ch <= '9') || (ch >= 'a' && ch <= 'f') || (ch >= 'A' && ch <= 'F');
+    }
+
+    /**
+     * 扫描位置，字符和字节两种输入共用同一套校验逻辑
+     */
+    private abstract static class Cursor {
+        int pos;
+        final int end;
+
+        Cursor(int pos, int end) {
+            this.pos = pos;
+            this.end = end;
+        }
+
+        /**
+         * @return 下标i处的字符或者无符号字节
+         */
+        abstract int at(int i);
+
+        /**
+         * 跳过字符串中不需要特殊处理的字符，停在引号、反斜杠、控制字符（字节输入时还有非ASCII字节）处
+         */
+        abstract void skipPlain(int quote);
+
+        /**
+         * 跳过字符串中pos处的非ASCII字符
+         * @return 编码是否合法
+         */
+        abstract boolean skipNonAscii();
+    }
+
+    private static final class CharCursor extends Cursor {
+        private final CharSequence text;
+
+        CharCursor(CharSequence text) {
+            super(0, text.length());
+            this.text = text;
+        }
+
+        @Override
+        int at(int i) {
+            return text.charAt(i);
+        }
+
+        @Override
+        void skipPlain(int quote) {
+            int i = pos;
+            while (i < end) {
+                char ch = text.charAt(i);
+                if (ch == quote || ch == '\\' || ch < 0x20) {
+                    break;
+                }
+                i++;
+            }
+            pos = i;
+        }
+
+        @Override
+        boolean skipNonAscii() {
+            pos++;
+            return true;
+        }
+    }
+
+    private static final class ByteCursor extends Cursor {
+        private final byte[] bytes;
+
+        ByteCursor(byte[] bytes, int pos, int end) {
+            super(pos, end);
+            this.bytes = bytes;
+        }
+
+        @Override
+        int at(int i) {
+            return bytes[i] & 0xFF;
+        }
+
+        @Override
+        void skipPlain(int quote) {
+            int i = pos;
+            while (i < end) {
+                byte b = bytes[i];
+                if (b == quote || b == '\\' || b < 0x20) {
+                    break;
+                }
+                i++;
+            }
+            pos = i;
+        }
+
+        @Override
+        boolean skipNonAscii() {
+            int b = at(pos);
+            int length;
+            int min = 0x80;
+            int max = 0xBF;
+            if (b >= 0xC2 && b <= 0xDF) {
+                length = 2;
+            } else if (b >= 0xE0 && b <= 0xEF) {
+                length = 3;
+                if (b == 0xE0) {
+                    // 过长编码
+                    min = 0xA0;
+                } else if (b == 0xED) {
+                    // 代理区
+                    max = 0x9F;
+                }
+            } else if (b >= 0xF0 && b <= 0xF4) {
+                length = 4;
+                if (b == 0xF0) {
+                    min = 0x90;
+                } else if (b == 0xF4) {
+                    max = 0x8F;
+                }
+            } else {
+                return false;
+            }
+            if (pos + length > end) {
+                return false;
+            }
+            int second = at(pos + 1);
+            if (second < min || second > max) {
+                return false;
+            }
+            for (int i = 2; i < length; i++) {
+                int next = at(pos + i);
+                if (next < 0x80 || next > 0xBF) {
+                    return false;
+                }
+            }
+            pos += length;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package io.github.sunning.fileutil;
+
+import com.google.common.base.Charsets;
+import org.apache.commons.lang3.ArrayUtils;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+/**
+ * 多线程读取本地csv文件
+ * 先通过内存映射顺序扫描一遍文件，按引号状态找到记录边界，把文件切成大小接近chunkSize的分片，
+ * 再把每个分片交给ForkJoinPool并行解码和解析。扫描只判断引号和换行，远比解析本身便宜
+ * 只支持逗号、双引号、换行都是单字节的编码，如UTF-8、GBK；gzip压缩的文件无法切分，会在调用线程中顺序读取
+ **/
+
+public class ParallelCsvReader {
+
+    /**
+     * 默认的分片大小
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+
+    /**
+     * 扫描记录边界时每次映射的文件大小
+     */
+    private static final long SCAN_WINDOW = 256L * 1024 * 1024;
+
+    private static final byte[] ASCII_SYMBOLS = {',', '"', '\r', '\n'};
+
+    private final Charset charset;
+    private final int chunkSize;
+    private final ForkJoinPool pool;
+
+    public ParallelCsvReader() {
+        this(Charsets.UTF_8, DEFAULT_CHUNK_SIZE, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param charset csv文件的编码
+     * @param chunkSize 每个分片的大约字节数
+     * @param pool 解析分片的线程池
+     */
+    public ParallelCsvReader(Charset charset, int chunkSize, ForkJoinPool pool) {
+        if (! Arrays.equals(ASCII_SYMBOLS, new String(ASCII_SYMBOLS, Charsets.US_ASCII).getBytes(charset))) {
+            throw new IllegalArgumentException("charset must be ascii compatible: " + charset);
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        this.charset = charset;
+        this.chunkSize = chunkSize;
+        this.pool = pool;
+    }
+
+    /**
+     * 并行读取csv文件内容，返回结果与文件中的行顺序一致
+     * @param filePath csv文件的路径
+     * @param needHeader 是否需要列标题（假设第一行是有标题的，如果没有该参数请传true）
+     * @param columns 指定读取csv文件的哪几列，如果为null，则读取全部列
+     * @return 返回csv文件中的数据
+     * @throws Exception exception
+     */
+    public List<String[]> read(String filePath, boolean needHeader, int[] columns) throws Exception {
+        List<String[]> csvList = new ArrayList<>();
+        read(filePath, needHeader, columns, true, csvList::add);
+        return csvList;
+    }
+
+    /**
+     * 并行读取csv文件内容
+     * @param filePath csv文件的路径
+     * @param needHeader 是否需要列标题（假设第一行是有标题的，如果没有该参数请传true）
+     * @param columns 指定读取csv文件的哪几列，如果为null，则读取全部列
+     * @param ordered 为true时consumer在调用线程中按文件顺序回调；
+     *                为false时consumer会被多个解析线程并发回调、不保证顺序，consumer需要是线程安全的
+     * @param consumer 每一行数据的回调
+     * @throws Exception exception
+     */
+    public void read(String filePath, boolean needHeader, int[] columns, boolean ordered, Consumer<String[]> consumer) throws Exception {
+        read(filePath, needHeader, columns, null, ordered, consumer);
+    }
+
+    /**
+     * 并行读取csv文件中满足条件的行，条件在解析时判断
+     * @param filePath csv文件的路径
+     * @param needHeader 是否需要列标题（假设第一行是有标题的，如果没有该参数请传true）
+     * @param columns 指定读取csv文件的哪几列，如果为null，则读取全部列
+     * @param filter 行过滤条件，作用于原始文件的列，如果为null，则不过滤
+     * @param ordered 为true时consumer在调用线程中按文件顺序回调；
+     *                为false时consumer会被多个解析线程并发回调、不保证顺序，consumer需要是线程安全的
+     * @param consumer 每一行数据的回调
+     * @throws Exception exception
+     */
+    public void read(String filePath, boolean needHeader, int[] columns, CsvRowFilter filter, boolean ordered,
+                     Consumer<String[]> consumer) throws Exception {
+        int[] projection = ArrayUtils.isEmpty(columns) ? null : columns;
+        if (CsvUtil.isGzip(filePath)) {
+            // gzip文件无法按偏移量切分，只能顺序读取
+            try (CsvRowIterator rows = CsvUtil.iterator(new FileInputStream(filePath), charset, needHeader, projection, filter)) {
+                rows.forEachRemaining(consumer);
+            }
+            return;
+        }
+        try (RandomAccessFile file = new RandomAccessFile(filePath, "r");
+             FileChannel channel = file.getChannel()) {
+            List<long[]> chunks = split(channel);
+            if (ordered) {
+                readOrdered(channel, chunks, needHeader, projection, filter, consumer);
+            } else {
+                readUnordered(channel, chunks, needHeader, projection, filter, consumer);
+            }
+        }
+    }
+
+    private void readOrdered(FileChannel channel, List<long[]> chunks, boolean needHeader, int[] columns,
+                             CsvRowFilter filter, Consumer<String[]> consumer) {
+        // 只让有限个分片的结果同时驻留在内存中
+        int maxInFlight = pool.getParallelism() * 2;
+        Deque<ForkJoinTask<List<String[]>>> inFlight = new ArrayDeque<>();
+        int next = 0;
+        while (next < chunks.size() || ! inFlight.isEmpty()) {
+            while (next < chunks.size() && inFlight.size() < maxInFlight) {
+                long[] chunk = chunks.get(next);
+                boolean skipHeader = next == 0 && ! needHeader;
+                inFlight.add(pool.submit(() -> {
+                    List<String[]> rows = new ArrayList<>();
+                    parseChunk(channel, chunk, skipHeader, columns, filter, rows::add);
+                    return rows;
+                }));
+                next++;
+            }
+            for (String[] row : inFlight.poll().join()) {
+                consumer.accept(row);
+            }
+        }
+    }
+
+    private void readUnordered(FileChannel channel, List<long[]> chunks, boolean needHeader, int[] columns,
+                               CsvRowFilter filter, Consumer<String[]> consumer) {
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(chunks.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            long[] chunk = chunks.get(i);
+            boolean skipHeader = i == 0 && ! needHeader;
+            tasks.add(pool.submit(() -> parseChunk(channel, chunk, skipHeader, columns, filter, consumer)));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+    }
+
+    /**
+     * 按记录边界把文件切成若干个[start, end)分片
+     */
+    private List<long[]> split(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<long[]> chunks = new ArrayList<>();
+        CsvRecordScanner scanner = new CsvRecordScanner();
+        long start = 0;
+        long target = chunkSize;
+        for (long windowStart = 0; windowStart < size; windowStart += SCAN_WINDOW) {
+            int windowLength = (int) Math.min(SCAN_WINDOW, size - windowStart);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowLength);
+            int p = 0;
+            while (p < windowLength) {
+                if (windowStart + p < target) {
+                    int upTo = (int) Math.min(windowLength, target - windowStart);
+                    scanner.feed(window, p, upTo);
+                    p = upTo;
+                    continue;
+                }
+                int boundary = scanner.nextBoundary(window, p, windowLength);
+                if (boundary < 0) {
+                    break;
+                }
+                chunks.add(new long[]{start, windowStart + boundary});
+                start = windowStart + boundary;
+                target = start + chunkSize;
+                p = boundary;
+            }
+        }
+        if (start < size) {
+            chunks.add(new long[]{start, size});
+        }
+        return chunks;
+    }
+
+    private void parseChunk(FileChannel channel, long[] chunk, boolean skipHeader, int[] columns,
+                            CsvRowFilter filter, Consumer<String[]> consumer) {
+        long length = chunk[1] - chunk[0];
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalStateException("csv record is too large at offset " + chunk[0]);
+        }
+        try {
+            ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, chunk[0], length);
+            CharBuffer chars = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                    .decode(bytes);
+            CsvTokenizer tokenizer = new CsvTokenizer(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining());
+            tokenizer.setColumns(columns);
+            tokenizer.setFilter(filter);
+            if (skipHeader) {
+                tokenizer.skipRecord();
+            }
+            String[] values;
+            while ((values = tokenizer.readRecord()) != null) {
+                consumer.accept(values);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package io.github.sunning.fileutil;
+
+import java.util.function.Supplier;
+
+/**
+ * test目录中各个性能对比共用的计时方法
+ *
+ **/
+
+final class BenchmarkRunner {
+
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int ROUNDS = 5;
+
+    private BenchmarkRunner() {
+    }
+
+    /**
+     * 先预热，再执行多轮，输出最快一轮的平均耗时
+     * 括号中是结果不为null也不为false的次数，避免结果没有被使用而被JIT优化掉
+     * @param name 输出的名称
+     * @param iterations 每轮执行的次数
+     * @param operation 被测量的操作
+     */
+    static void run(String name, int iterations, Supplier<?> operation) {
+        long count = 0;
+        for (int i = 0; i < WARMUP_ROUNDS * iterations; i++) {
+            count += accept(operation.get());
+        }
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                count += accept(operation.get());
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%s %12.1f ns/op (%d)%n", name, (double) best / iterations, count);
+    }
+
+    private static int accept(Object result) {
+        return result == null || Boolean.FALSE.equals(result) ? 0 : 1;
+    }
+}
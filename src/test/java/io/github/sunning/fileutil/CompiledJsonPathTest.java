@@ -0,0 +1,92 @@
+package io.github.sunning.fileutil;
+
+import com.alibaba.fastjson.JSON;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompiledJsonPathTest {
+
+    private static final String JSON_TEXT = "{\"data\":{\"name\":\"张三\",\"age\":18,\"items\":[{\"id\":1},{\"id\":2}]}}";
+
+    @Test
+    public void testCompile() {
+        // Run the test
+        final CompiledJsonPath path = CompiledJsonPath.compile("$.data.name");
+
+        // Verify the results
+        Assert.assertSame(path, CompiledJsonPath.compile("$.data.name"));
+        Assert.assertArrayEquals(new String[]{"$", "data", "name"}, path.keys());
+        Assert.assertEquals("name", path.lastKey());
+        Assert.assertEquals("张三", path.eval(JSON.parseObject(JSON_TEXT)));
+    }
+
+    @Test
+    public void testCompile_Eviction() {
+        // Setup：只编译过一次的路径会被淘汰，再次使用过的路径会保留
+        CompiledJsonPath.clearCache();
+        final CompiledJsonPath path = CompiledJsonPath.compile("$.evicted");
+        final CompiledJsonPath hot = CompiledJsonPath.compile("$.hot");
+        Assert.assertSame(hot, CompiledJsonPath.compile("$.hot"));
+
+        // Run the test
+        for (int i = 0; i < CompiledJsonPath.MAX_CACHE_SIZE; i++) {
+            CompiledJsonPath.compile("$.key" + i);
+        }
+
+        // Verify the results
+        Assert.assertTrue(CompiledJsonPath.cacheSize() <= CompiledJsonPath.MAX_CACHE_SIZE);
+        Assert.assertSame(hot, CompiledJsonPath.compile("$.hot"));
+        Assert.assertNotSame(path, CompiledJsonPath.compile("$.evicted"));
+    }
+
+    @Test
+    public void testCompile_FullCacheKeepsHotPaths() {
+        // Setup：缓存已满并且所有路径都被使用过
+        CompiledJsonPath.clearCache();
+        final CompiledJsonPath[] full = new CompiledJsonPath[CompiledJsonPath.MAX_CACHE_SIZE];
+        for (int i = 0; i < full.length; i++) {
+            full[i] = CompiledJsonPath.compile("$.full" + i);
+        }
+        final CompiledJsonPath hot = CompiledJsonPath.compile("$.hot");
+        Assert.assertSame(hot, CompiledJsonPath.compile("$.hot"));
+        for (int i = 1; i < full.length; i++) {
+            Assert.assertSame(full[i], CompiledJsonPath.compile("$.full" + i));
+        }
+
+        // Run the test
+        CompiledJsonPath.compile("$.new");
+
+        // Verify the results：只淘汰一个路径，其余路径都保留
+        Assert.assertEquals(CompiledJsonPath.MAX_CACHE_SIZE, CompiledJsonPath.cacheSize());
+        Assert.assertSame(hot, CompiledJsonPath.compile("$.hot"));
+        for (int i = 2; i < full.length; i++) {
+            Assert.assertSame(full[i], CompiledJsonPath.compile("$.full" + i));
+        }
+        Assert.assertNotSame(full[1], CompiledJsonPath.compile("$.full1"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCompile_Empty() {
+        CompiledJsonPath.compile("");
+    }
+
+    @Test
+    public void testFastJsonUtil() {
+        // Setup
+        final CompiledJsonPath name = CompiledJsonPath.compile("$.data.name");
+        final CompiledJsonPath id = CompiledJsonPath.compile("$.data.items.id");
+
+        // Run the test
+        final String put = FastJsonUtil.put(JSON_TEXT, CompiledJsonPath.compile("$.data.city"), "北京");
+        final String removed = FastJsonUtil.remove(JSON_TEXT, name);
+        final String replaced = FastJsonUtil.replace(JSON_TEXT, name, "李四");
+        final String replacedNew = FastJsonUtil.replaceNew(JSON_TEXT, id, "0");
+
+        // Verify the results
+        Assert.assertEquals("北京", FastJsonUtil.eval(put, "$.data.city"));
+        Assert.assertNull(FastJsonUtil.eval(removed, name));
+        Assert.assertEquals("李四", FastJsonUtil.eval(replaced, name));
+        Assert.assertEquals("[\"0\",\"0\"]", JSON.toJSONString(FastJsonUtil.eval(replacedNew, id)));
+        Assert.assertEquals(FastJsonUtil.replace(JSON_TEXT, "$.data.name", "李四"), replaced);
+    }
+}
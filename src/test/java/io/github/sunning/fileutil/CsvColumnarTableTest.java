@@ -0,0 +1,113 @@
+package io.github.sunning.fileutil;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CsvColumnarTableTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testLoad() throws Exception {
+        // Setup
+        final File file = folder.newFile("test.csv");
+        final List<String[]> rows = new ArrayList<>();
+        rows.add(new String[]{"id", "city", "amount", "note", "code"});
+        for (int i = 0; i < 1000; i++) {
+            rows.add(new String[]{String.valueOf(i), i % 3 == 0 ? "北京" : "上海", i % 2 == 0 ? String.valueOf(i) : i + ".25",
+                    "note-" + i, i == 500 ? "007" : String.valueOf(i)});
+        }
+        rows.add(new String[]{"", "", ""});
+        CsvUtil.write(rows, file.getPath(), false);
+
+        // Run the test
+        final CsvColumnarTable table = CsvUtil.readColumnar(file.getPath(), true);
+
+        // Verify the results
+        Assert.assertEquals(1001, table.getRowCount());
+        Assert.assertEquals(5, table.getColumnCount());
+        Assert.assertEquals(2, table.getColumnIndex("amount"));
+        Assert.assertEquals(CsvColumnarTable.Encoding.LONG, table.getEncoding(0));
+        Assert.assertEquals(CsvColumnarTable.Encoding.DICTIONARY, table.getEncoding(1));
+        Assert.assertEquals(CsvColumnarTable.Encoding.DOUBLE, table.getEncoding(2));
+        Assert.assertEquals(CsvColumnarTable.Encoding.STRING, table.getEncoding(3));
+        Assert.assertEquals(CsvColumnarTable.Encoding.STRING, table.getEncoding(4));
+        for (int i = 0; i < 1000; i++) {
+            // 读回的文本与文件内容一致
+            Assert.assertArrayEquals(rows.get(i + 1), table.getRow(i));
+        }
+        Assert.assertArrayEquals(new String[]{"", "", "", "", ""}, table.getRow(1000));
+        Assert.assertTrue(table.isNull(1000, 0));
+        Assert.assertEquals(0, table.getLong(1000, 0));
+        Assert.assertEquals(7.25, table.getDouble(7, 2), 0);
+    }
+
+    @Test
+    public void testScan() throws Exception {
+        // Setup
+        final File file = folder.newFile("test.csv");
+        final List<String[]> rows = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            rows.add(new String[]{String.valueOf(i), i % 10 == 0 ? "PAID" : "NEW", "name" + i});
+        }
+        CsvUtil.write(rows, file.getPath(), false);
+
+        // Run the test
+        final CsvColumnarTable table = CsvColumnarTable.load(new FileInputStream(file),
+                StandardCharsets.UTF_8, false, new int[]{0, 1, 2});
+
+        // Verify the results
+        Assert.assertArrayEquals(new int[]{0, 10, 20, 30, 40, 50, 60, 70, 80, 90}, table.scanEquals(1, "PAID"));
+        Assert.assertArrayEquals(new int[]{0, 10, 20, 30, 40, 50, 60, 70, 80, 90}, table.scan(1, "PAID"::equals));
+        Assert.assertArrayEquals(new int[]{20, 60}, table.scanLong(0, v -> v == 20 || v == 60));
+        Assert.assertArrayEquals(new int[]{98, 99}, table.scanDouble(0, v -> v > 97.5));
+        Assert.assertArrayEquals(new int[]{42}, table.scanEquals(2, "name42"));
+        Assert.assertEquals(0, table.scanEquals(2, "missing").length);
+    }
+
+    @Test
+    public void testLoadWithSnapshot() throws Exception {
+        // Setup
+        final File file = folder.newFile("test.csv");
+        final List<String[]> rows = new ArrayList<>();
+        rows.add(new String[]{"id", "city", "amount", "note"});
+        for (int i = 0; i < 500; i++) {
+            rows.add(new String[]{String.valueOf(i), i % 2 == 0 ? "北京" : "上海", i + ".5", i % 7 == 0 ? "" : "note-" + i});
+        }
+        CsvUtil.write(rows, file.getPath(), false);
+        final File snapshot = new File(file.getPath() + ".columnar");
+
+        // Run the test
+        final CsvColumnarTable parsed = CsvUtil.readColumnar(file.getPath(), true, true);
+        final long snapshotModified = snapshot.lastModified();
+        final CsvColumnarTable cached = CsvUtil.readColumnar(file.getPath(), true, true);
+
+        // Verify the results
+        Assert.assertTrue(snapshot.isFile());
+        Assert.assertEquals(snapshotModified, snapshot.lastModified());
+        Assert.assertArrayEquals(parsed.getHeader(), cached.getHeader());
+        Assert.assertEquals(parsed.getRowCount(), cached.getRowCount());
+        for (int i = 0; i < parsed.getColumnCount(); i++) {
+            Assert.assertEquals(parsed.getEncoding(i), cached.getEncoding(i));
+        }
+        for (int i = 0; i < parsed.getRowCount(); i++) {
+            Assert.assertArrayEquals(parsed.getRow(i), cached.getRow(i));
+        }
+
+        // csv文件变化后重新解析
+        rows.add(new String[]{"500", "广州", "1.5", "new"});
+        CsvUtil.write(rows, file.getPath(), false);
+        final CsvColumnarTable reloaded = CsvUtil.readColumnar(file.getPath(), true, true);
+        Assert.assertEquals(501, reloaded.getRowCount());
+        Assert.assertEquals("广州", reloaded.get(500, 1));
+    }
+}
@@ -0,0 +1,95 @@
+package io.github.sunning.fileutil;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+public class CsvExternalSorterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSort() throws Exception {
+        // Setup
+        final File input = folder.newFile("input.csv");
+        final File output = folder.newFile("output.csv");
+        final File tempDir = folder.newFolder("tmp");
+        final List<String[]> rows = new ArrayList<>();
+        rows.add(new String[]{"key", "seq", "note"});
+        final Random random = new Random(7);
+        for (int i = 0; i < 1000; i++) {
+            rows.add(new String[]{"k" + random.nextInt(50), String.valueOf(i), i % 3 == 0 ? "a,\"b\"" : "plain"});
+        }
+        CsvUtil.write(rows, input.getPath(), false);
+
+        // Run the test：每段37行、每次最多归并3段，覆盖多轮归并
+        new CsvExternalSorter(37, 3, tempDir, 3).sort(input.getPath(), output.getPath(), true, 0);
+
+        // Verify the results
+        final List<String[]> expected = new ArrayList<>(rows.subList(1, rows.size()));
+        expected.sort(Comparator.comparing(r -> r[0]));
+        final List<String[]> result = CsvUtil.read(output.getPath(), true);
+        Assert.assertArrayEquals(rows.get(0), result.get(0));
+        Assert.assertEquals(expected.size(), result.size() - 1);
+        for (int i = 0; i < expected.size(); i++) {
+            // 键相同的行保持原来的顺序
+            Assert.assertArrayEquals(expected.get(i), result.get(i + 1));
+        }
+        Assert.assertEquals(0, tempDir.list().length);
+    }
+
+    @Test
+    public void testSortInMemory() throws Exception {
+        // Setup
+        final File input = folder.newFile("input.csv");
+        final File output = folder.newFile("output.csv");
+        final List<String[]> rows = new ArrayList<>();
+        rows.add(new String[]{"b", "2"});
+        rows.add(new String[]{"a", "3"});
+        rows.add(new String[]{"a", "1"});
+        CsvUtil.write(rows, input.getPath(), false);
+
+        // Run the test
+        new CsvExternalSorter().sort(input.getPath(), output.getPath(), false, 0, 1);
+
+        // Verify the results
+        final List<String[]> result = CsvUtil.read(output.getPath(), true);
+        Assert.assertArrayEquals(new String[]{"a", "1"}, result.get(0));
+        Assert.assertArrayEquals(new String[]{"a", "3"}, result.get(1));
+        Assert.assertArrayEquals(new String[]{"b", "2"}, result.get(2));
+    }
+
+    @Test
+    public void testAggregate() throws Exception {
+        // Setup
+        final File input = folder.newFile("input.csv");
+        final File output = folder.newFile("output.csv");
+        final List<String[]> rows = new ArrayList<>();
+        rows.add(new String[]{"city", "amount"});
+        for (int i = 0; i < 300; i++) {
+            rows.add(new String[]{i % 2 == 0 ? "北京" : "上海", String.valueOf(i % 10) + ".5"});
+        }
+        rows.add(new String[]{"上海", ""});
+        CsvUtil.write(rows, input.getPath(), false);
+
+        // Run the test
+        new CsvExternalSorter(40, 2, folder.newFolder("tmp")).aggregate(input.getPath(), output.getPath(), true,
+                new int[]{0}, CsvAggregation.count(), CsvAggregation.sum(1), CsvAggregation.min(1), CsvAggregation.max(1));
+
+        // Verify the results
+        final List<String[]> result = CsvUtil.read(output.getPath(), true);
+        Assert.assertEquals(3, result.size());
+        Assert.assertArrayEquals(new String[]{"city", "count", "sum(amount)", "min(amount)", "max(amount)"}, result.get(0));
+        // 上海：1、3、5、7、9各30次，北京：0、2、4、6、8各30次
+        Assert.assertArrayEquals(new String[]{"上海", "151", "825.0", "1.5", "9.5"}, result.get(1));
+        Assert.assertArrayEquals(new String[]{"北京", "150", "675.0", "0.5", "8.5"}, result.get(2));
+    }
+}
@@ -0,0 +1,99 @@
+package io.github.sunning.fileutil;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class CsvFileWriterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final List<String[]> ROWS = Arrays.asList(
+            new String[]{"aaa", "bbb"},
+            new String[]{"北京", "上海"},
+            new String[]{"a,b", "say \"hi\"", "line1\nline2"},
+            new String[]{" padded ", null, ""},
+            new String[]{""},
+            new String[]{"emoji 😀"});
+
+    @Test
+    public void testWriteRows() throws Exception {
+        // Setup
+        final File file = folder.newFile("test.csv");
+
+        // Run the test
+        CsvUtil.write(ROWS, file.getPath(), false);
+
+        // Verify the results
+        assertRows(CsvUtil.read(file.getPath(), true));
+    }
+
+    @Test
+    public void testWriteSmallBufferAndCharset() throws Exception {
+        // Setup
+        final File file = folder.newFile("test.csv");
+        final Charset gbk = Charset.forName("GBK");
+
+        // Run the test
+        try (CsvFileWriter writer = new CsvFileWriter(file.getPath(), false, gbk, 16)) {
+            writer.writeRows(Stream.of(ROWS.get(0), ROWS.get(1)));
+            writer.writeBeans(Arrays.asList(1, 2).iterator(), i -> new String[]{String.valueOf(i), "第" + i + "行"});
+        }
+
+        // Verify the results
+        final List<String[]> result = CsvUtil.read(new FileInputStream(file), gbk, true, null);
+        Assert.assertEquals(4, result.size());
+        Assert.assertArrayEquals(new String[]{"北京", "上海"}, result.get(1));
+        Assert.assertArrayEquals(new String[]{"2", "第2行"}, result.get(3));
+    }
+
+    @Test
+    public void testAppend() throws Exception {
+        // Setup
+        final File file = folder.newFile("test.csv");
+        CsvUtil.write(ROWS.subList(0, 2), file.getPath(), false);
+
+        // Run the test
+        try (CsvFileWriter writer = CsvUtil.writer(file.getPath(), true)) {
+            writer.writeRows(ROWS.subList(2, ROWS.size()).iterator());
+        }
+
+        // Verify the results
+        assertRows(CsvUtil.read(file.getPath(), true));
+    }
+
+    private static void assertRows(List<String[]> result) {
+        Assert.assertEquals(ROWS.size(), result.size());
+        for (int i = 0; i < ROWS.size(); i++) {
+            String[] expected = Arrays.stream(ROWS.get(i)).map(v -> v == null ? "" : v).toArray(String[]::new);
+            Assert.assertArrayEquals(expected, result.get(i));
+        }
+    }
+
+    @Test
+    public void testGzip() throws Exception {
+        // Setup
+        final File file = new File(folder.getRoot(), "test.csv.gz");
+
+        // Run the test
+        CsvUtil.write(ROWS.subList(0, 3), file.getPath(), false);
+        CsvUtil.write(ROWS.subList(3, ROWS.size()), file.getPath(), true);
+
+        // Verify the results
+        Assert.assertTrue(CsvUtil.isGzip(file.getPath()));
+        assertRows(CsvUtil.read(file.getPath(), true));
+        assertRows(CsvUtil.readParallel(file.getPath(), true, null));
+        final List<String[]> fromStream = CsvUtil.read(new FileInputStream(file), true);
+        Assert.assertEquals(ROWS.size(), fromStream.size());
+    }
+}
@@ -0,0 +1,209 @@
+package io.github.sunning.fileutil;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class CsvPublisherTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSubscribe() throws Exception {
+        // Setup
+        final File file = folder.newFile("test.csv");
+        final List<String[]> rows = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            rows.add(new String[]{String.valueOf(i), "v" + i});
+        }
+        CsvUtil.write(rows, file.getPath(), false);
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+
+        // Run the test
+        new CsvPublisher(file.getPath(), StandardCharsets.UTF_8, true, null, null, Runnable::run).subscribe(subscriber);
+        subscriber.subscription.request(3);
+
+        // Verify the results：只发出请求的数量
+        Assert.assertEquals(3, subscriber.items.size());
+        Assert.assertFalse(subscriber.completed);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        Assert.assertEquals(10, subscriber.items.size());
+        Assert.assertTrue(subscriber.completed);
+        for (int i = 0; i < 10; i++) {
+            Assert.assertArrayEquals(rows.get(i), subscriber.items.get(i));
+        }
+    }
+
+    @Test
+    public void testSubscribe_ExactDemand() throws Exception {
+        // Setup
+        final File file = folder.newFile("test.csv");
+        final List<String[]> rows = new ArrayList<>();
+        rows.add(new String[]{"1", "a"});
+        rows.add(new String[]{"2", "b"});
+        CsvUtil.write(rows, file.getPath(), false);
+        final CountDownLatch latch = new CountDownLatch(1);
+        final RecordingSubscriber subscriber = new RecordingSubscriber() {
+            @Override
+            public void onSubscribe(CsvFlow.Subscription subscription) {
+                super.onSubscribe(subscription);
+                subscription.request(2);
+            }
+
+            @Override
+            public void onComplete() {
+                super.onComplete();
+                latch.countDown();
+            }
+        };
+
+        // Run the test
+        CsvUtil.publisher(file.getPath(), true, null).subscribe(subscriber);
+
+        // Verify the results：请求数量等于行数时不需要再次request也会结束
+        Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals(2, subscriber.items.size());
+        Assert.assertArrayEquals(rows.get(1), subscriber.items.get(1));
+    }
+
+    @Test
+    public void testSubscribe_Cancel() throws Exception {
+        // Setup
+        final File file = folder.newFile("test.csv");
+        final List<String[]> rows = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            rows.add(new String[]{String.valueOf(i)});
+        }
+        CsvUtil.write(rows, file.getPath(), false);
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        final RecordingSubscriber subscriber = new RecordingSubscriber() {
+            @Override
+            public void onNext(String[] item) {
+                super.onNext(item);
+                if (items.size() == 4) {
+                    subscription.cancel();
+                    cancelled.countDown();
+                }
+            }
+        };
+
+        // Run the test
+        CsvUtil.publisher(file.getPath(), true, null).subscribe(subscriber);
+        subscriber.subscription.request(100);
+
+        // Verify the results
+        Assert.assertTrue(cancelled.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals(4, subscriber.items.size());
+        Assert.assertFalse(subscriber.completed);
+    }
+
+    @Test
+    public void testSubscribe_OnCompleteThrows() throws Exception {
+        // Setup
+        final File file = folder.newFile("test.csv");
+        CsvUtil.write(Collections.singletonList(new String[]{"a"}), file.getPath(), false);
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+        final RecordingSubscriber subscriber = new RecordingSubscriber() {
+            @Override
+            public void onError(Throwable throwable) {
+                errors.add(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                super.onComplete();
+                throw new IllegalStateException("subscriber bug");
+            }
+        };
+        new CsvPublisher(file.getPath(), StandardCharsets.UTF_8, true, null, null, Runnable::run).subscribe(subscriber);
+
+        // Run the test
+        try {
+            subscriber.subscription.request(10);
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("subscriber bug", e.getMessage());
+        }
+        subscriber.subscription.request(10);
+
+        // Verify the results：只发出一次结束信号
+        Assert.assertTrue(subscriber.completed);
+        Assert.assertEquals(1, subscriber.items.size());
+        Assert.assertTrue(errors.isEmpty());
+    }
+
+    @Test
+    public void testSubscribe_OneByOne() throws Exception {
+        // Setup
+        final File file = folder.newFile("test.csv");
+        final List<String[]> rows = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            rows.add(new String[]{String.valueOf(i), "北京"});
+        }
+        CsvUtil.write(rows, file.getPath(), false);
+        final CountDownLatch latch = new CountDownLatch(1);
+        final RecordingSubscriber subscriber = new RecordingSubscriber() {
+            @Override
+            public void onSubscribe(CsvFlow.Subscription subscription) {
+                super.onSubscribe(subscription);
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(String[] item) {
+                super.onNext(item);
+                subscription.request(1);
+            }
+
+            @Override
+            public void onComplete() {
+                super.onComplete();
+                latch.countDown();
+            }
+        };
+
+        // Run the test
+        CsvUtil.publisher(file.getPath(), true, new int[]{0}).subscribe(subscriber);
+
+        // Verify the results
+        Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals(1000, subscriber.items.size());
+        Assert.assertArrayEquals(new String[]{"999"}, subscriber.items.get(999));
+    }
+
+    private static class RecordingSubscriber implements CsvFlow.Subscriber<String[]> {
+        final List<String[]> items = Collections.synchronizedList(new ArrayList<>());
+        volatile CsvFlow.Subscription subscription;
+        volatile boolean completed;
+
+        @Override
+        public void onSubscribe(CsvFlow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(String[] item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            throw new AssertionError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
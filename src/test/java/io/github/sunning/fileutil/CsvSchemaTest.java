@@ -0,0 +1,113 @@
+package io.github.sunning.fileutil;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class CsvSchemaTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testInfer() throws Exception {
+        // Setup
+        final File file = folder.newFile("test.csv");
+        final List<String[]> rows = new ArrayList<>();
+        rows.add(new String[]{"flag", "id", "big", "day", "time", "price", "amount", "name"});
+        for (int i = 0; i < 20; i++) {
+            rows.add(new String[]{i % 2 == 0 ? "true" : "FALSE", String.valueOf(i), String.valueOf(10_000_000_000L + i),
+                    "2021-05-" + (10 + i), i == 3 ? "2021-05-01" : "2021-05-01 12:00:0" + (i % 10), i + ".5",
+                    "12345678901234567.0" + i, i == 5 ? "" : "n" + i});
+        }
+        CsvUtil.write(rows, file.getPath(), false);
+
+        // Run the test
+        final CsvSchema schema = CsvUtil.inferSchema(file.getPath(), true);
+
+        // Verify the results
+        Assert.assertArrayEquals(rows.get(0), schema.getHeader());
+        Assert.assertArrayEquals(new CsvColumnType[]{CsvColumnType.BOOLEAN, CsvColumnType.INT, CsvColumnType.LONG,
+                CsvColumnType.DATE, CsvColumnType.DATETIME, CsvColumnType.DOUBLE, CsvColumnType.DECIMAL,
+                CsvColumnType.STRING}, schema.getTypes());
+    }
+
+    @Test
+    public void testInfer_Reservoir() throws Exception {
+        // Setup：前面的行都是整数，只有后面才出现小数
+        final File file = folder.newFile("test.csv");
+        final List<String[]> rows = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            rows.add(new String[]{i < 1000 ? String.valueOf(i) : i + ".5"});
+        }
+        CsvUtil.write(rows, file.getPath(), false);
+
+        // Run the test
+        final CsvSchema head = CsvSchema.infer(file.getPath(), false, 100);
+        final CsvSchema sampled = CsvSchema.infer(new FileInputStream(file), StandardCharsets.UTF_8, false, 100, new Random(1));
+
+        // Verify the results
+        Assert.assertEquals(CsvColumnType.INT, head.getType(0));
+        Assert.assertEquals(CsvColumnType.DOUBLE, sampled.getType(0));
+    }
+
+    @Test
+    public void testReadTyped() throws Exception {
+        // Setup
+        final File file = folder.newFile("test.csv");
+        final List<String[]> rows = new ArrayList<>();
+        rows.add(new String[]{"true", "7", "1.25", "2021-05-27", "2021-05-27 08:30:00", "0.1", "北京", "extra"});
+        rows.add(new String[]{"", "", "", "", "", "", ""});
+        CsvUtil.write(rows, file.getPath(), false);
+        final CsvSchema schema = CsvSchema.of(CsvColumnType.BOOLEAN, CsvColumnType.INT, CsvColumnType.DOUBLE,
+                CsvColumnType.DATE, CsvColumnType.DATETIME, CsvColumnType.DECIMAL, CsvColumnType.STRING);
+        final List<String> result = new ArrayList<>();
+
+        // Run the test
+        CsvUtil.readTyped(file.getPath(), false, schema, row -> {
+            if (row.getRowNumber() == 0) {
+                Assert.assertTrue(row.getBoolean(0));
+                Assert.assertEquals(7, row.getInt(1));
+                Assert.assertEquals(1.25, row.getDouble(2), 0);
+                Assert.assertEquals(LocalDate.of(2021, 5, 27), row.getDate(3));
+                Assert.assertEquals(LocalDateTime.of(2021, 5, 27, 8, 30), row.getDateTime(4));
+                Assert.assertEquals(new BigDecimal("0.1"), row.getDecimal(5));
+            } else {
+                for (int i = 0; i < row.getColumnCount(); i++) {
+                    Assert.assertTrue(row.isNull(i));
+                }
+                Assert.assertEquals(0, row.getInt(1));
+            }
+            result.add(row.getString(4) + "|" + row.getString(6));
+        });
+
+        // Verify the results
+        Assert.assertEquals(2, result.size());
+        Assert.assertEquals("2021-05-27 08:30:00|北京", result.get(0));
+        Assert.assertEquals("|", result.get(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReadTyped_BadValue() throws Exception {
+        // Setup
+        final File file = folder.newFile("test.csv");
+        final List<String[]> rows = new ArrayList<>();
+        rows.add(new String[]{"1"});
+        rows.add(new String[]{"x"});
+        CsvUtil.write(rows, file.getPath(), false);
+
+        // Run the test
+        CsvUtil.readTyped(file.getPath(), false, CsvSchema.of(CsvColumnType.INT), row -> { });
+    }
+}
@@ -0,0 +1,101 @@
+package io.github.sunning.fileutil;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CsvTailReaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testPoll() throws Exception {
+        // Setup
+        final File file = folder.newFile("test.csv");
+        final String checkpoint = new File(folder.getRoot(), "test.checkpoint").getPath();
+        final List<String[]> rows = new ArrayList<>();
+        append(file, "id,note\n1,aaa\n2,\"multi");
+
+        // Run the test
+        CsvTailReader reader = new CsvTailReader(file.getPath(), checkpoint, StandardCharsets.UTF_8, true);
+        Assert.assertEquals(1, reader.poll(rows::add));
+        // 引号内的换行不是记录边界，没写完的记录要等下一次
+        append(file, "\nline\"");
+        Assert.assertEquals(0, reader.poll(rows::add));
+        append(file, "\n3,北京\n");
+        Assert.assertEquals(2, reader.poll(rows::add));
+        Assert.assertEquals(0, reader.poll(rows::add));
+
+        // 重启后从检查点继续
+        append(file, "4,ddd\n");
+        reader = new CsvTailReader(file.getPath(), checkpoint, StandardCharsets.UTF_8, true);
+        Assert.assertEquals(1, reader.poll(rows::add));
+
+        // Verify the results
+        Assert.assertArrayEquals(new String[]{"id", "note"}, reader.getHeader());
+        Assert.assertEquals(4, rows.size());
+        Assert.assertArrayEquals(new String[]{"1", "aaa"}, rows.get(0));
+        Assert.assertArrayEquals(new String[]{"2", "multi\nline"}, rows.get(1));
+        Assert.assertArrayEquals(new String[]{"3", "北京"}, rows.get(2));
+        Assert.assertArrayEquals(new String[]{"4", "ddd"}, rows.get(3));
+        Assert.assertEquals(file.length(), reader.getOffset());
+    }
+
+    @Test
+    public void testPoll_Truncated() throws Exception {
+        // Setup
+        final File file = folder.newFile("test.csv");
+        final String checkpoint = new File(folder.getRoot(), "test.checkpoint").getPath();
+        final List<String[]> rows = new ArrayList<>();
+        append(file, "a,1\nb,2\n");
+        final CsvTailReader reader = new CsvTailReader(file.getPath(), checkpoint);
+        reader.poll(rows::add);
+
+        // Run the test：文件被轮转成新内容
+        try (FileOutputStream out = new FileOutputStream(file, false)) {
+            out.write("c,3\n".getBytes(StandardCharsets.UTF_8));
+        }
+        final int count = reader.poll(rows::add);
+
+        // Verify the results
+        Assert.assertEquals(1, count);
+        Assert.assertArrayEquals(new String[]{"c", "3"}, rows.get(2));
+    }
+
+    @Test
+    public void testPoll_ConsumerFailed() throws Exception {
+        // Setup
+        final File file = folder.newFile("test.csv");
+        final String checkpoint = new File(folder.getRoot(), "test.checkpoint").getPath();
+        append(file, "a,1\n");
+        final CsvTailReader reader = new CsvTailReader(file.getPath(), checkpoint);
+
+        // Run the test
+        try {
+            reader.poll(row -> {
+                throw new IllegalStateException("sink is down");
+            });
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        // Verify the results
+        Assert.assertEquals(0, reader.getOffset());
+        Assert.assertEquals(1, reader.poll(row -> { }));
+    }
+
+    private static void append(File file, String content) throws Exception {
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -5,9 +5,13 @@ import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.assertTrue;
 
@@ -148,4 +152,182 @@ public class CsvUtilTest {
 //        CsvUtil.write(list, "/Users/nanxuan/temp/test11.csv", false);
     }
 
+    @Test
+    public void testReadWithConsumer() throws Exception {
+        // Setup
+        final InputStream inputStream = new ByteArrayInputStream("name,city,age\ntom,beijing,18\njack,shanghai,20\n".getBytes(StandardCharsets.UTF_8));
+        final List<String[]> result = new ArrayList<>();
+
+        // Run the test
+        CsvUtil.read(inputStream, StandardCharsets.UTF_8, false, new int[]{1, 0}, result::add);
+
+        // Verify the results
+        Assert.assertEquals(2, result.size());
+        Assert.assertArrayEquals(new String[]{"beijing", "tom"}, result.get(0));
+        Assert.assertArrayEquals(new String[]{"shanghai", "jack"}, result.get(1));
+    }
+
+    @Test
+    public void testIterator() throws Exception {
+        // Setup
+        final InputStream inputStream = new ByteArrayInputStream("name,city\ntom,beijing\n".getBytes(StandardCharsets.UTF_8));
+
+        // Run the test
+        try (CsvRowIterator iterator = CsvUtil.iterator(inputStream, StandardCharsets.UTF_8, true, null)) {
+            // Verify the results
+            Assert.assertArrayEquals(new String[]{"name", "city"}, iterator.next());
+            Assert.assertArrayEquals(new String[]{"tom", "beijing"}, iterator.next());
+            Assert.assertFalse(iterator.hasNext());
+        }
+    }
+
+    @Test
+    public void testStream() throws Exception {
+        // Setup
+        final InputStream inputStream = new ByteArrayInputStream("name,city\ntom,beijing\njack,shanghai\n".getBytes(StandardCharsets.UTF_8));
+
+        // Run the test
+        final long count;
+        try (Stream<String[]> stream = CsvUtil.stream(inputStream, StandardCharsets.UTF_8, false, new int[]{1})) {
+            count = stream.filter(row -> row[0].startsWith("s")).count();
+        }
+
+        // Verify the results
+        Assert.assertEquals(1, count);
+    }
+
+    @Test
+    public void testReadProjection() throws Exception {
+        // Setup
+        final InputStream inputStream = new ByteArrayInputStream("a,b,c,d\n1, \"x,\"\"y\"\"\" ,3,4\n\n5,6,7,8".getBytes(StandardCharsets.UTF_8));
+
+        // Run the test
+        final List<String[]> result = CsvUtil.read(inputStream, StandardCharsets.UTF_8, false, new int[]{2, 1, 2});
+
+        // Verify the results
+        Assert.assertEquals(2, result.size());
+        Assert.assertArrayEquals(new String[]{"3", "x,\"y\"", "3"}, result.get(0));
+        Assert.assertArrayEquals(new String[]{"7", "6", "7"}, result.get(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReadProjection_ShortRecord() throws Exception {
+        // Setup
+        final InputStream inputStream = new ByteArrayInputStream("a,b,c\n1,2\n".getBytes(StandardCharsets.UTF_8));
+
+        // Run the test
+        CsvUtil.read(inputStream, StandardCharsets.UTF_8, false, new int[]{2});
+    }
+
+    @Test
+    public void testReadBeans() throws Exception {
+        // Setup
+        final String csv = "ID,name,price,count,created,ignored\n"
+                + "1,tom,12.35,3,2021-05-01,x\n"
+                + "2,,0.1,,2021-05-02 10:20:30,y\n";
+        final InputStream inputStream = new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+        final List<Order> result = new ArrayList<>();
+
+        // Run the test
+        CsvUtil.readBeans(inputStream, StandardCharsets.UTF_8, true, Order.class, result::add);
+
+        // Verify the results
+        Assert.assertEquals(2, result.size());
+        Assert.assertEquals(1L, result.get(0).id);
+        Assert.assertEquals("tom", result.get(0).name);
+        Assert.assertEquals(new BigDecimal("12.35"), result.get(0).price);
+        Assert.assertEquals(3, result.get(0).count);
+        Assert.assertEquals(LocalDateTime.of(2021, 5, 1, 0, 0), result.get(0).created);
+        Assert.assertEquals("", result.get(1).name);
+        Assert.assertEquals(0, result.get(1).count);
+        Assert.assertEquals(LocalDateTime.of(2021, 5, 2, 10, 20, 30), result.get(1).created);
+    }
+
+    @Test
+    public void testReadBeansByIndex() throws Exception {
+        // Setup
+        final InputStream inputStream = new ByteArrayInputStream("7,1.5\n8,-2.25\n".getBytes(StandardCharsets.UTF_8));
+        final List<Point> result = new ArrayList<>();
+
+        // Run the test
+        CsvUtil.readBeans(inputStream, StandardCharsets.UTF_8, false, Point.class, result::add);
+
+        // Verify the results
+        Assert.assertEquals(2, result.size());
+        Assert.assertEquals(8, result.get(1).id);
+        Assert.assertEquals(-2.25, result.get(1).value, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReadBeans_BadNumber() throws Exception {
+        // Setup
+        final InputStream inputStream = new ByteArrayInputStream("7,abc\n".getBytes(StandardCharsets.UTF_8));
+
+        // Run the test
+        CsvUtil.readBeans(inputStream, StandardCharsets.UTF_8, false, Point.class, point -> { });
+    }
+
+    @Test
+    public void testReadWithFilter() throws Exception {
+        // Setup
+        final String csv = "id,status,amount,date\n1,PAID,10,2021-05-01\n2,NEW,20,2021-05-02\n3,PAID,30,2021-06-01\n4,PAID\n";
+        final CsvRowFilter filter = CsvRowFilter.in(1, "PAID")
+                .and(CsvRowFilter.of(v -> v[0] != null && v[0].startsWith("2021-05"), 3));
+
+        // Run the test
+        final List<String[]> projected = new ArrayList<>();
+        CsvUtil.read(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8, false,
+                new int[]{2, 0}, filter, projected::add);
+        final List<String[]> full = new ArrayList<>();
+        CsvUtil.read(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8, false,
+                null, CsvRowFilter.in(1, "PAID"), full::add);
+
+        // Verify the results
+        Assert.assertEquals(1, projected.size());
+        Assert.assertArrayEquals(new String[]{"10", "1"}, projected.get(0));
+        Assert.assertEquals(3, full.size());
+        Assert.assertArrayEquals(new String[]{"3", "PAID", "30", "2021-06-01"}, full.get(1));
+        Assert.assertArrayEquals(new String[]{"4", "PAID"}, full.get(2));
+    }
+
+    @Test
+    public void testReadWithFilter_ShortCircuit() throws Exception {
+        // Setup：靠前的列不满足条件时，靠后的列不再判断
+        final String csv = "1,PAID,10,2021-05-01\n2,NEW,20,2021-05-02\n3,PAID,30,2021-06-01\n";
+        final AtomicInteger dateChecks = new AtomicInteger();
+        final CsvRowFilter filter = CsvRowFilter.of(v -> dateChecks.incrementAndGet() > 0 && v[0].startsWith("2021-05"), 3)
+                .and(CsvRowFilter.in(1, "PAID"));
+
+        // Run the test
+        final List<String[]> result = new ArrayList<>();
+        CsvUtil.read(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8, true,
+                null, filter, result::add);
+
+        // Verify the results
+        Assert.assertEquals(1, result.size());
+        Assert.assertEquals("1", result.get(0)[0]);
+        Assert.assertEquals(2, dateChecks.get());
+    }
+
+    public static class Order {
+        private long id;
+        private String name;
+        private BigDecimal price;
+        private int count;
+        private LocalDateTime created;
+        @CsvColumn(ignore = true)
+        private String ignored;
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class Point {
+        @CsvColumn(index = 0)
+        private int id;
+        @CsvColumn(index = 1)
+        private double value;
+    }
+
 }
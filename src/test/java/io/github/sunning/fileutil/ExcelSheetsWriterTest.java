@@ -0,0 +1,108 @@
+package io.github.sunning.fileutil;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+public class ExcelSheetsWriterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testWrite() throws Exception {
+        // Setup：两个sheet的任务互相等待，只有并行执行才能都返回true
+        final File file = new File(folder.getRoot(), "report.xlsx");
+        final CountDownLatch started = new CountDownLatch(2);
+        final List<Boolean> concurrent = Collections.synchronizedList(new ArrayList<>());
+
+        // Run the test
+        new ExcelSheetsWriter(0, folder.getRoot())
+                .sheet("orders", () -> {
+                    started.countDown();
+                    concurrent.add(started.await(10, TimeUnit.SECONDS));
+                    return IntStream.range(0, 1500).mapToObj(i -> new String[]{"order" + i, String.valueOf(i)}).iterator();
+                })
+                .sheet("refunds", () -> {
+                    started.countDown();
+                    concurrent.add(started.await(10, TimeUnit.SECONDS));
+                    return IntStream.range(0, 3).mapToObj(i -> new String[]{"refund" + i}).iterator();
+                })
+                .write(file.getPath());
+
+        // Verify the results
+        Assert.assertEquals("[true, true]", concurrent.toString());
+        final List<String[]> orders = new ArrayList<>();
+        final List<String[]> refunds = new ArrayList<>();
+        ExcelUtil.read(file.getPath(), 0, true, orders::add);
+        ExcelUtil.read(file.getPath(), 1, true, refunds::add);
+        Assert.assertEquals(1500, orders.size());
+        Assert.assertArrayEquals(new String[]{"order1499", "1499"}, orders.get(1499));
+        Assert.assertEquals(3, refunds.size());
+        Assert.assertArrayEquals(new String[]{"refund2"}, refunds.get(2));
+        Assert.assertEquals(1, folder.getRoot().listFiles().length);
+    }
+
+    @Test
+    public void testWrite_Failure() throws Exception {
+        // Setup
+        final File file = new File(folder.getRoot(), "report.xlsx");
+        final ExcelSheetsWriter writer = new ExcelSheetsWriter(1, folder.getRoot())
+                .sheet("ok", () -> IntStream.range(0, 10).mapToObj(i -> new String[]{String.valueOf(i)}).iterator())
+                .sheet("broken", () -> {
+                    throw new IllegalStateException("query failed");
+                });
+
+        // Run the test
+        try {
+            writer.write(file.getPath());
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("query failed", e.getMessage());
+        }
+
+        // Verify the results
+        Assert.assertEquals(0, folder.getRoot().listFiles().length);
+    }
+
+    @Test
+    public void testWrite_FailureDoesNotWaitForEarlierSheets() throws Exception {
+        // Setup：第一个sheet很慢，第二个sheet立即失败
+        final File file = new File(folder.getRoot(), "report.xlsx");
+        final ExcelSheetsWriter writer = new ExcelSheetsWriter(0, folder.getRoot())
+                .sheet("slow", () -> {
+                    Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                    return Collections.<String[]>emptyList().iterator();
+                })
+                .sheet("broken", () -> {
+                    throw new IllegalStateException("query failed");
+                });
+
+        // Run the test
+        final long start = System.nanoTime();
+        try {
+            writer.write(file.getPath());
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("query failed", e.getMessage());
+        }
+
+        // Verify the results
+        Assert.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(30));
+        Assert.assertFalse(file.exists());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSheet_Duplicate() {
+        new ExcelSheetsWriter().sheet("a", () -> null).sheet("a", () -> null);
+    }
+}
@@ -0,0 +1,85 @@
+package io.github.sunning.fileutil;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class ExcelUtilTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testWriteAndRead() throws Exception {
+        // Setup：行数超过一批，并包含空单元格和首尾空格
+        final File file = new File(folder.getRoot(), "test.xlsx");
+        final List<String[]> rows = new ArrayList<>();
+        rows.add(new String[]{"id", "name", "remark"});
+        for (int i = 0; i < ExcelUtil.WRITE_BATCH_SIZE + 10; i++) {
+            rows.add(new String[]{String.valueOf(i), i == 7 ? "" : "名字" + i, " r" + i + " "});
+        }
+
+        // Run the test
+        ExcelUtil.write(rows.iterator(), file.getPath(), "data");
+        final List<String[]> withHeader = ExcelUtil.read(file.getPath(), true);
+        final List<String[]> withoutHeader = ExcelUtil.read(file.getPath(), false);
+
+        // Verify the results
+        Assert.assertEquals(rows.size(), withHeader.size());
+        for (int i = 0; i < rows.size(); i++) {
+            Assert.assertArrayEquals(rows.get(i), withHeader.get(i));
+        }
+        Assert.assertEquals(rows.size() - 1, withoutHeader.size());
+        Assert.assertArrayEquals(rows.get(1), withoutHeader.get(0));
+    }
+
+    @Test
+    public void testReadBatch() throws Exception {
+        // Setup
+        final File file = new File(folder.getRoot(), "test.xlsx");
+        ExcelUtil.write(IntStream.range(0, 25).mapToObj(i -> new String[]{String.valueOf(i)}).iterator(),
+                file.getPath(), ExcelUtil.DEFAULT_SHEET_NAME);
+        final List<Integer> sizes = new ArrayList<>();
+        final List<String> values = new ArrayList<>();
+
+        // Run the test
+        ExcelUtil.readBatch(file.getPath(), 0, true, 10, batch -> {
+            sizes.add(batch.size());
+            batch.forEach(row -> values.add(row[0]));
+        });
+
+        // Verify the results
+        Assert.assertEquals("[10, 10, 5]", sizes.toString());
+        Assert.assertEquals(IntStream.range(0, 25).mapToObj(String::valueOf).collect(Collectors.toList()), values);
+    }
+
+    @Test
+    public void testCsvToXlsxAndBack() throws Exception {
+        // Setup
+        final File csv = folder.newFile("test.csv");
+        final File xlsx = new File(folder.getRoot(), "test.xlsx");
+        final File back = new File(folder.getRoot(), "back.csv");
+        final List<String[]> rows = new ArrayList<>();
+        rows.add(new String[]{"a", "b,c", "d\"e"});
+        rows.add(new String[]{"1", "", "多行\n文本"});
+        CsvUtil.write(rows, csv.getPath(), false);
+
+        // Run the test
+        ExcelUtil.csvToXlsx(csv.getPath(), xlsx.getPath());
+        ExcelUtil.xlsxToCsv(xlsx.getPath(), back.getPath());
+
+        // Verify the results
+        final List<String[]> result = CsvUtil.read(back.getPath(), true);
+        Assert.assertEquals(rows.size(), result.size());
+        for (int i = 0; i < rows.size(); i++) {
+            Assert.assertArrayEquals(rows.get(i), result.get(i));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package io.github.sunning.fileutil;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+public class FastJsonUtilConvertTest {
+
+    private static final String JSON_TEXT = "{\"data\":{\"user\":{\"name\":\"张三\",\"age\":18,\"amount\":12345678901234567.01},"
+            + "\"users\":[{\"name\":\"a\",\"age\":1},{\"name\":\"b\",\"age\":2}],\"count\":7,\"flag\":true,\"price\":0.1,"
+            + "\"ids\":[1,2,3]}}";
+
+    @Test
+    public void testEval() {
+        // Run the test
+        final User user = FastJsonUtil.eval(JSON_TEXT, "$.data.user", User.class);
+
+        // Verify the results
+        Assert.assertEquals("张三", user.getName());
+        Assert.assertEquals(18, user.getAge());
+        Assert.assertEquals(new BigDecimal("12345678901234567.01"), user.getAmount());
+        Assert.assertEquals(Long.valueOf(7), FastJsonUtil.eval(JSON_TEXT, "$.data.count", Long.class));
+        Assert.assertEquals("7", FastJsonUtil.eval(JSON_TEXT, "$.data.count", String.class));
+        Assert.assertEquals(Boolean.TRUE, FastJsonUtil.eval(JSON_TEXT, "$.data.flag", Boolean.class));
+        Assert.assertEquals(Double.valueOf(0.1), FastJsonUtil.eval(JSON_TEXT, "$.data.price", Double.class));
+        Assert.assertEquals(new BigDecimal("12345678901234567.01"), FastJsonUtil.eval(JSON_TEXT, "$.data.user.amount", BigDecimal.class));
+        Assert.assertEquals(new BigDecimal("0.1"), FastJsonUtil.eval(JSON_TEXT, "$.data.price", BigDecimal.class));
+        Assert.assertEquals(new BigDecimal("7"), FastJsonUtil.eval(JSON_TEXT, "$.data.count", BigDecimal.class));
+        Assert.assertEquals(Short.valueOf((short) 7), FastJsonUtil.eval(JSON_TEXT, "$.data.count", Short.class));
+    }
+
+    @Test
+    public void testEval_JSONObjectReturnsCopy() {
+        // Setup
+        final JSONObject root = JSON.parseObject(JSON_TEXT);
+
+        // Run the test
+        final JSONObject data = FastJsonUtil.eval(root, "$.data", JSONObject.class);
+        data.getJSONObject("user").put("name", "李四");
+        data.getJSONArray("ids").add(4);
+        final Map<?, ?> user = FastJsonUtil.eval(root, "$.data.user", Map.class);
+        user.clear();
+
+        // Verify the results：修改返回值不影响原来的json
+        Assert.assertEquals("张三", root.getJSONObject("data").getJSONObject("user").getString("name"));
+        Assert.assertEquals(3, root.getJSONObject("data").getJSONArray("ids").size());
+        Assert.assertEquals(Integer.valueOf(7), FastJsonUtil.eval(root, "$.data.count", Integer.class));
+    }
+
+    @Test
+    public void testEvals() {
+        // Run the test
+        final List<User> users = FastJsonUtil.evals(JSON_TEXT, "$.data.users", User.class);
+        final List<Long> ids = FastJsonUtil.evals(JSON_TEXT, "$.data.ids", Long.class);
+
+        // Verify the results
+        Assert.assertEquals(2, users.size());
+        Assert.assertEquals("b", users.get(1).getName());
+        Assert.assertEquals(2, users.get(1).getAge());
+        Assert.assertEquals(Long.valueOf(3), ids.get(2));
+        Assert.assertNull(FastJsonUtil.evals(JSON_TEXT, "$.data.user", User.class));
+    }
+
+    public static class User {
+        private String name;
+        private int age;
+        private BigDecimal amount;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public void setAge(int age) {
+            this.age = age;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public void setAmount(BigDecimal amount) {
+            this.amount = amount;
+        }
+    }
+}
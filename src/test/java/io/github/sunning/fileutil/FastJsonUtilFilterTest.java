@@ -0,0 +1,93 @@
+package io.github.sunning.fileutil;
+
+import com.alibaba.fastjson.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class FastJsonUtilFilterTest {
+
+    @Test
+    public void testToJsonString() {
+        // Setup
+        final Bean bean = new Bean();
+        bean.setName("a");
+        bean.setSchema("s");
+        final Bean child = new Bean();
+        child.setName("b");
+        child.setSchema("s");
+        bean.setChild(child);
+        final JSONObject map = new JSONObject(true);
+        map.put("schema", "s");
+        map.put("token", "t");
+        map.put("id", 1);
+
+        // Run the test
+        final String result = FastJsonUtil.toJsonString(bean, "schema", null);
+        final String mapResult = FastJsonUtil.toJsonString(map, "schema", "token");
+
+        // Verify the results：嵌套对象和Map中的属性也会被删除，被删除属性的getter不会被调用
+        Assert.assertEquals("{\"child\":{\"name\":\"b\"},\"name\":\"a\"}", result);
+        Assert.assertEquals("{\"id\":1}", mapResult);
+        Assert.assertEquals(0, bean.schemaReads.get());
+        Assert.assertEquals(result, FastJsonUtil.toStringNoSchema(bean));
+        Assert.assertEquals(result, FastJsonUtil.paramToString(bean));
+        Assert.assertEquals("{\"name\":\"a\",\"schema\":\"s\"}", FastJsonUtil.toJsonString(new Bean("a", "s")));
+    }
+
+    @Test
+    public void testExcludeFilter_Cached() {
+        // Setup
+        final String[] attrs = {"x", "y"};
+
+        // Run the test
+        final Object first = FastJsonUtil.excludeFilter(attrs);
+        attrs[1] = "z";
+        final Object second = FastJsonUtil.excludeFilter("x", "y");
+
+        // Verify the results
+        Assert.assertSame(first, second);
+        Assert.assertNotSame(first, FastJsonUtil.excludeFilter(attrs));
+    }
+
+    public static class Bean {
+        private final AtomicInteger schemaReads = new AtomicInteger();
+        private String name;
+        private String schema;
+        private Bean child;
+
+        public Bean() {
+        }
+
+        Bean(String name, String schema) {
+            this.name = name;
+            this.schema = schema;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getSchema() {
+            schemaReads.incrementAndGet();
+            return schema;
+        }
+
+        public void setSchema(String schema) {
+            this.schema = schema;
+        }
+
+        public Bean getChild() {
+            return child;
+        }
+
+        public void setChild(Bean child) {
+            this.child = child;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package io.github.sunning.fileutil;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * fastjson与jackson两个json引擎的性能对比
+ * 直接运行main方法，对小对象、大数组、深层嵌套三种数据分别测量序列化、解析、取值（靠前和靠后的路径）和脱敏
+ *
+ **/
+
+public class JsonEngineBenchmark {
+
+    private static final long TARGET_CHARS = 20_000_000L;
+
+    public static void main(String[] args) {
+        bench("small object", smallObject(), "$.code", "$.data.phone", Arrays.asList("$.data.phone", "$.data.idCard"));
+        bench("large array ", largeArray(), "$.code", "$.data.total", Arrays.asList("$.data.list.phone"));
+        bench("deep nested ", deepNested(), "$.code", "$.l1.l2.l3.l4.l5.l6.l7.l8.value", Arrays.asList("$.l1.l2.l3.l4.l5.l6.l7.l8.value"));
+    }
+
+    private static void bench(String shape, String json, String headPath, String tailPath, List<String> maskPaths) {
+        int iterations = (int) Math.max(100, TARGET_CHARS / json.length());
+        Object tree = JsonEngines.FASTJSON.parse(json);
+        System.out.println(shape + ": " + json.length() + " chars, " + iterations + " iterations");
+        for (JsonEngine engine : Arrays.asList(JsonEngines.FASTJSON, JsonEngines.JACKSON)) {
+            String prefix = "  " + String.format("%-8s", engine.name());
+            BenchmarkRunner.run(prefix + " toJson   ", iterations, () -> engine.toJson(tree));
+            BenchmarkRunner.run(prefix + " parse    ", iterations, () -> engine.parse(json));
+            BenchmarkRunner.run(prefix + " eval head", iterations, () -> engine.eval(json, headPath));
+            BenchmarkRunner.run(prefix + " eval tail", iterations, () -> engine.eval(json, tailPath));
+            BenchmarkRunner.run(prefix + " mask     ", iterations, () -> engine.mask(json, maskPaths));
+        }
+    }
+
+    private static String smallObject() {
+        return "{\"code\":0,\"message\":\"成功\",\"data\":{\"id\":10086,\"name\":\"张三\",\"phone\":\"13812345678\","
+                + "\"idCard\":\"110101199003071234\",\"balance\":1024.50,\"vip\":true}}";
+    }
+
+    private static String largeArray() {
+        StringBuilder builder = new StringBuilder("{\"code\":0,\"message\":\"成功\",\"data\":{\"list\":[");
+        for (int i = 0; i < 2000; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append("{\"id\":").append(i).append(",\"name\":\"用户").append(i)
+                    .append("\",\"phone\":\"138").append(String.format("%08d", i)).append("\",\"score\":").append(i * 1.5)
+                    .append(",\"tags\":[\"a\",\"b\"],\"vip\":").append(i % 2 == 0).append('}');
+        }
+        return builder.append("],\"total\":2000}}").toString();
+    }
+
+    private static String deepNested() {
+        StringBuilder builder = new StringBuilder("{\"code\":0");
+        for (int i = 1; i <= 8; i++) {
+            builder.append(",\"noise").append(i).append("\":[");
+            for (int j = 0; j < 20; j++) {
+                builder.append(j > 0 ? "," : "").append("{\"k\":").append(j).append(",\"v\":\"x").append(j).append("\"}");
+            }
+            builder.append("],\"l").append(i).append("\":{\"depth\":").append(i);
+        }
+        builder.append(",\"value\":\"13812345678\"");
+        for (int i = 0; i < 8; i++) {
+            builder.append('}');
+        }
+        return builder.append('}').toString();
+    }
+}
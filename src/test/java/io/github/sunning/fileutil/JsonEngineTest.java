@@ -0,0 +1,134 @@
+package io.github.sunning.fileutil;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class JsonEngineTest {
+
+    private static final String JSON_TEXT = "{\"code\":0,\"data\":{\"user\":{\"id\":12345678901,\"name\":\"张三\",\"phone\":\"13812345678\"},"
+            + "\"orders\":[{\"no\":\"A1\",\"amount\":12.50},{\"no\":\"A2\",\"amount\":3}],\"big\":123456789012345678901234567890},"
+            + "\"tags\":[\"a\",\"b\"],\"vip\":true}";
+
+    private static final List<JsonEngine> ENGINES = Arrays.asList(JsonEngines.FASTJSON, JsonEngines.JACKSON);
+
+    @Test
+    public void testParseSameResult() {
+        // Run the test
+        final Object fastjson = JsonEngines.FASTJSON.parse(JSON_TEXT);
+        final Object jackson = JsonEngines.JACKSON.parse(JSON_TEXT);
+
+        // Verify the results
+        Assert.assertEquals(fastjson, jackson);
+        Assert.assertEquals(Arrays.asList("code", "data", "tags", "vip"), Arrays.asList(((Map<?, ?>) jackson).keySet().toArray()));
+    }
+
+    @Test
+    public void testEvalSameResult() {
+        for (String path : Arrays.asList("$.code", "$.data.user.id", "$.data.user", "$.data.orders.no",
+                "$.data.orders[1].amount", "$.data.big", "$.tags[0]", "$.data.missing.id", "$.vip.x")) {
+            // Run the test
+            final Object fastjson = JsonEngines.FASTJSON.eval(JSON_TEXT, path);
+            final Object jackson = JsonEngines.JACKSON.eval(JSON_TEXT, path);
+
+            // Verify the results
+            Assert.assertEquals(path, fastjson, jackson);
+        }
+        Assert.assertEquals(new BigDecimal("12.50"), JsonEngines.JACKSON.eval(JSON_TEXT, "$.data.orders[0].amount"));
+    }
+
+    @Test
+    public void testEvalDuplicateKeys() {
+        // Setup：key重复时后面的值整个替换前面的值
+        final String json = "{\"a\":1,\"b\":{\"c\":1,\"d\":1},\"a\":2,\"b\":{\"c\":2},\"e\":{\"f\":1,\"f\":3}}";
+        for (String path : Arrays.asList("$.a", "$.b.c", "$.b.d", "$.e.f")) {
+            // Run the test
+            final Object fastjson = JsonEngines.FASTJSON.eval(json, path);
+            final Object jackson = JsonEngines.JACKSON.eval(json, path);
+
+            // Verify the results
+            Assert.assertEquals(path, fastjson, jackson);
+        }
+        Assert.assertEquals(2, JsonEngines.JACKSON.eval(json, "$.a"));
+        Assert.assertEquals(3, JsonEngines.JACKSON.eval(json, "$.e.f"));
+    }
+
+    @Test(expected = JSONException.class)
+    public void testEvalTruncated() {
+        // Run the test：会读完整个json，不完整的内容会报错
+        JsonEngines.JACKSON.eval("{\"id\":1,\"rest\":[1,2,", "$.id");
+    }
+
+    @Test
+    public void testToJsonRoundTrip() {
+        // Setup
+        final Map<String, Object> map = new LinkedHashMap<>();
+        map.put("name", "李四");
+        map.put("empty", null);
+        map.put("scores", new int[]{1, 2});
+        map.put("ratio", 0.5);
+        map.put("amount", new BigDecimal("10.01"));
+        map.put("list", Collections.singletonList(true));
+
+        for (JsonEngine engine : ENGINES) {
+            // Run the test
+            final String json = engine.toJson(map);
+
+            // Verify the results
+            Assert.assertEquals(engine.name(), JSON.parse("{\"name\":\"李四\",\"scores\":[1,2],\"ratio\":0.5,\"amount\":10.01,\"list\":[true]}"),
+                    JSON.parse(json));
+        }
+    }
+
+    @Test
+    public void testMaskSameResult() {
+        // Setup
+        final List<String> paths = Arrays.asList("$.data.user.phone", "$.data.orders.no");
+
+        // Run the test
+        final Object fastjson = JSON.parse(JsonEngines.FASTJSON.mask(JSON_TEXT, paths));
+        final Object jackson = JSON.parse(JsonEngines.JACKSON.mask(JSON_TEXT, paths));
+
+        // Verify the results
+        Assert.assertEquals(fastjson, jackson);
+        Assert.assertEquals("138****5678", JsonEngines.JACKSON.eval(JSON.toJSONString(jackson), "$.data.user.phone"));
+    }
+
+    @Test
+    public void testMalformedJson() {
+        for (JsonEngine engine : ENGINES) {
+            try {
+                engine.parse("{\"a\":}");
+                Assert.fail(engine.name());
+            } catch (JSONException e) {
+                // Verify the results
+                Assert.assertNotNull(e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void testOf() {
+        Assert.assertSame(JsonEngines.FASTJSON, JsonEngines.of("fastjson"));
+        Assert.assertSame(JsonEngines.JACKSON, JsonEngines.of("jackson"));
+        try {
+            JsonEngines.of("gson");
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage().contains("gson"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testJacksonRejectsBean() {
+        JsonEngines.JACKSON.toJson(new Object());
+    }
+}
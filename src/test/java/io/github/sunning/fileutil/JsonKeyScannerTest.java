@@ -0,0 +1,68 @@
+package io.github.sunning.fileutil;
+
+import com.alibaba.fastjson.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JsonKeyScannerTest {
+
+    private static final String JSON_TEXT = " {\"nested\":{\"key\":\"inner\",\"list\":[{\"a\":\"}\"},\"]\"]},\n"
+            + "\"list\":[1,[2,3],{\"x\":null}],\"text\":\"a\\\"b\\u4e2d\",\"num\":12.50,\"big\":12345678901234567890,"
+            + "\"flag\":true,\"none\":null,\"k\\\"ey\":1,\"last\":\"end\"}";
+
+    @Test
+    public void testGetJsonValue() {
+        // Setup
+        final JSONObject object = JSONObject.parseObject(JSON_TEXT);
+
+        // Run the test & Verify the results：与完整解析后getString的结果一致
+        for (String key : new String[]{"nested", "list", "text", "num", "big", "flag", "none", "k\"ey", "last", "key", "missing"}) {
+            Assert.assertEquals(key, object.getString(key), FastJsonUtil.getJsonValue(JSON_TEXT, key));
+        }
+    }
+
+    @Test
+    public void testContainsKey() {
+        Assert.assertTrue(FastJsonUtil.containsKey(JSON_TEXT, "none"));
+        Assert.assertTrue(FastJsonUtil.containsKey(JSON_TEXT, "k\"ey"));
+        Assert.assertFalse(FastJsonUtil.containsKey(JSON_TEXT, "key"));
+        Assert.assertTrue(FastJsonUtil.containsKey(JSON_TEXT, "last", "nested", "num"));
+        Assert.assertFalse(FastJsonUtil.containsKey(JSON_TEXT, "last", "x"));
+        Assert.assertFalse(FastJsonUtil.containsKey("{}", "a"));
+    }
+
+    @Test
+    public void testScan_EarlyStop() {
+        // Setup：key之后的内容不完整也能找到
+        final String json = "{\"a\":1,\"b\":{\"c\":[1,2]},\"target\":\"v\",\"broken\":";
+
+        // Run the test & Verify the results
+        Assert.assertTrue(FastJsonUtil.containsKey(json, "target"));
+        Assert.assertTrue(JsonKeyScanner.scan(json, "target"::equals) > 0);
+        Assert.assertEquals(JsonKeyScanner.MALFORMED, JsonKeyScanner.indexOfValue(json, "target"));
+        Assert.assertEquals(JsonKeyScanner.MALFORMED, JsonKeyScanner.indexOfValue(json, "missing"));
+    }
+
+    @Test
+    public void testGetJsonValue_DuplicateKey() {
+        // Setup：重复的key与完整解析一样以最后一个为准
+        final String json = "{\"role\":\"user\",\"name\":\"a\",\"role\":\"admin\"}";
+
+        // Run the test & Verify the results
+        Assert.assertEquals(JSONObject.parseObject(json).getString("role"), FastJsonUtil.getJsonValue(json, "role"));
+        Assert.assertEquals("admin", FastJsonUtil.getJsonValue(json, "role"));
+        Assert.assertTrue(FastJsonUtil.containsKey(json, "role"));
+    }
+
+    @Test
+    public void testScan_Fallback() {
+        // Setup：fastjson兼容的单引号写法回退到完整解析
+        final String json = "{'a':1,b:'x'}";
+
+        // Run the test & Verify the results
+        Assert.assertEquals(JsonKeyScanner.MALFORMED, JsonKeyScanner.indexOfValue(json, "b"));
+        Assert.assertEquals("x", FastJsonUtil.getJsonValue(json, "b"));
+        Assert.assertTrue(FastJsonUtil.containsKey(json, "a"));
+        Assert.assertFalse(FastJsonUtil.containsKey("[1,2]", "a"));
+    }
+}
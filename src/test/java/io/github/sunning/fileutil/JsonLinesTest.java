@@ -0,0 +1,110 @@
+package io.github.sunning.fileutil;
+
+import com.alibaba.fastjson.JSONException;
+import com.alibaba.fastjson.JSONObject;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class JsonLinesTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    public static class Event {
+        private int id;
+        private String name;
+
+        public int getId() {
+            return id;
+        }
+
+        public void setId(int id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    @Test
+    public void testWriteAndReadGzip() throws Exception {
+        // Setup
+        final File file = new File(folder.getRoot(), "events.jsonl.gz");
+        final List<Event> events = IntStream.range(0, 5000).mapToObj(i -> {
+            Event event = new Event();
+            event.setId(i);
+            event.setName("事件\n" + i);
+            return event;
+        }).collect(Collectors.toList());
+
+        // Run the test
+        try (JsonLinesWriter writer = new JsonLinesWriter(file.getPath(), false)) {
+            writer.writeAll(events.iterator());
+        }
+        final List<Event> result = new ArrayList<>();
+        try (JsonLinesReader<Event> reader = new JsonLinesReader<>(file.getPath(), Event.class)) {
+            reader.forEachRemaining(result::add);
+        }
+
+        // Verify the results
+        Assert.assertEquals(5000, result.size());
+        for (int i = 0; i < result.size(); i++) {
+            Assert.assertEquals(i, result.get(i).getId());
+            Assert.assertEquals("事件\n" + i, result.get(i).getName());
+        }
+    }
+
+    @Test
+    public void testReadParallelKeepsOrder() throws Exception {
+        // Setup
+        final String text = IntStream.range(0, 1000).mapToObj(i -> i % 7 == 0 ? "{\"id\":" + i + "}\n\n" : "{\"id\":" + i + "}\n")
+                .collect(Collectors.joining());
+        final ForkJoinPool pool = new ForkJoinPool(4);
+
+        // Run the test
+        final List<Integer> ids = new ArrayList<>();
+        try (JsonLinesReader<JSONObject> reader = new JsonLinesReader<>(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)),
+                StandardCharsets.UTF_8, JSONObject.class, 10, 4, pool)) {
+            reader.forEachRemaining(json -> ids.add(json.getInteger("id")));
+        } finally {
+            pool.shutdown();
+        }
+
+        // Verify the results
+        Assert.assertEquals(IntStream.range(0, 1000).boxed().collect(Collectors.toList()), ids);
+    }
+
+    @Test
+    public void testReadBadLineReportsLineNumber() throws Exception {
+        // Setup
+        final String text = "{\"id\":1}\n\n{\"id\":2}\n{\"id\":\n";
+
+        // Run the test
+        try (JsonLinesReader<Event> reader = new JsonLinesReader<>(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)),
+                StandardCharsets.UTF_8, Event.class, 2, 1, null)) {
+            Assert.assertEquals(1, reader.next().getId());
+            Assert.assertEquals(2, reader.next().getId());
+            reader.next();
+            Assert.fail();
+        } catch (JSONException e) {
+            // Verify the results
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("line 4"));
+        }
+    }
+}
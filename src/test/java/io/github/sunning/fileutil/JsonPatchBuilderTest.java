@@ -0,0 +1,52 @@
+package io.github.sunning.fileutil;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+
+public class JsonPatchBuilderTest {
+
+    private static final String JSON_TEXT = "{\"header\":{\"token\":\"abc\"},\"body\":{\"name\":\"张三丰\",\"password\":\"123456\","
+            + "\"cards\":[{\"number\":\"6222020000001234\"},{\"number\":\"6222020000005678\"},{\"type\":\"none\"}]}}";
+
+    @Test
+    public void testApply() {
+        // Setup
+        final JsonPatchBuilder patch = new JsonPatchBuilder()
+                .put("$.header.traceId", "t-1")
+                .remove("$.body.password")
+                .replace("$.body.name", "李四")
+                .replaceNew("$.body.cards.type", "card")
+                .mask("$.body.cards.number")
+                .remove("$.missing.key");
+
+        // Run the test
+        final String result = patch.apply(JSON_TEXT);
+
+        // Verify the results：与逐个调用FastJsonUtil的结果一致
+        String expected = FastJsonUtil.put(JSON_TEXT, "$.header.traceId", "t-1");
+        expected = FastJsonUtil.remove(expected, "$.body.password");
+        expected = FastJsonUtil.replace(expected, "$.body.name", "李四");
+        expected = FastJsonUtil.replaceNew(expected, "$.body.cards.type", "card");
+        expected = FastJsonUtil.encryptJson(expected, Collections.singletonList("$.body.cards.number"));
+        Assert.assertEquals(expected, result);
+        Assert.assertEquals(6, patch.size());
+        Assert.assertEquals("\"62220******01234\"", FastJsonUtil.toJsonString(FastJsonUtil.eval(result, "$.body.cards[0].number")));
+    }
+
+    @Test
+    public void testApply_Reuse() {
+        // Setup
+        final JsonPatchBuilder patch = new JsonPatchBuilder().put("$.id", 1);
+
+        // Run the test
+        final String first = patch.apply("{\"a\":1}");
+        final String second = patch.apply("{\"b\":2}");
+
+        // Verify the results
+        Assert.assertEquals("{\"a\":1,\"id\":1}", first);
+        Assert.assertEquals("{\"b\":2,\"id\":1}", second);
+        Assert.assertEquals("", patch.apply(""));
+    }
+}
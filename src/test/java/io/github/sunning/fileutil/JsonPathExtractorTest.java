@@ -0,0 +1,78 @@
+package io.github.sunning.fileutil;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+public class JsonPathExtractorTest {
+
+    private static final String JSON_TEXT = "{\"skip\":{\"user\":{\"id\":0}},\"user\":{\"id\":1001,\"name\":\"张三\",\"tags\":[\"a\",\"b\"],"
+            + "\"profile\":{\"age\":18,\"score\":99.50}},\"items\":[{\"sku\":\"s1\",\"price\":1.5},{\"sku\":\"s2\",\"price\":2}],"
+            + "\"big\":12345678901234567890,\"long\":12345678901,\"flag\":false,\"none\":null}";
+
+    private static final String[] PATHS = {"$.user.id", "$.user.name", "$.user.tags", "$.user.profile", "$.user.profile.score",
+            "$.items.sku", "$.items[1].price", "$.big", "$.long", "$.flag", "$.none", "$.missing", "$.user.name.x", "$.user.profile.age"};
+
+    @Test
+    public void testExtractStreaming() {
+        // Setup
+        final JsonPathExtractor extractor = JsonPathExtractor.of(PATHS);
+
+        // Run the test
+        final Map<String, Object> streaming = extractor.extractStreaming(JSON_TEXT);
+        final Map<String, Object> tree = extractor.extract(JSON_TEXT);
+
+        // Verify the results：与解析整个json后逐个求值的结果一致
+        Assert.assertEquals(PATHS.length, streaming.size());
+        for (String path : PATHS) {
+            Assert.assertEquals(path, JSON.toJSONString(FastJsonUtil.eval(JSON_TEXT, path)), JSON.toJSONString(streaming.get(path)));
+            Assert.assertEquals(path, JSON.toJSONString(tree.get(path)), JSON.toJSONString(streaming.get(path)));
+        }
+        Assert.assertEquals(1001, streaming.get("$.user.id"));
+        Assert.assertEquals(new BigDecimal("99.50"), streaming.get("$.user.profile.score"));
+        Assert.assertEquals(12345678901L, streaming.get("$.long"));
+    }
+
+    @Test
+    public void testExtractStreaming_DuplicateKeys() {
+        // Setup：key重复时后面的值整个替换前面的值
+        final String json = "{\"a\":1,\"b\":{\"c\":1,\"d\":1},\"a\":2,\"b\":{\"c\":2},\"e\":{\"f\":1,\"f\":3}}";
+        final String[] paths = {"$.a", "$.b.c", "$.b.d", "$.e.f"};
+        final JsonPathExtractor extractor = JsonPathExtractor.of(paths);
+
+        // Run the test
+        final Map<String, Object> result = extractor.extractStreaming(json);
+
+        // Verify the results：与解析整个json的结果一致
+        Assert.assertEquals(2, result.get("$.a"));
+        Assert.assertEquals(2, result.get("$.b.c"));
+        Assert.assertNull(result.get("$.b.d"));
+        Assert.assertEquals(3, result.get("$.e.f"));
+        for (String path : paths) {
+            Assert.assertEquals(path, FastJsonUtil.eval(json, path), result.get(path));
+        }
+    }
+
+    @Test(expected = JSONException.class)
+    public void testExtractStreaming_Truncated() {
+        // Run the test：会扫描完整个json，不完整的内容会报错
+        JsonPathExtractor.of("$.a.b", "$.c").extractStreaming("{\"a\":{\"x\":[1,{}],\"b\":\"v\"},\"c\":2,\"d\":");
+    }
+
+    @Test
+    public void testEvalMany() {
+        // Run the test
+        final Map<String, Object> result = FastJsonUtil.evalMany(JSON_TEXT, "$.user.name", "$.items[0].sku");
+        final Map<String, Object> invalid = FastJsonUtil.evalMany("not json", "$.a");
+
+        // Verify the results
+        Assert.assertEquals("张三", result.get("$.user.name"));
+        Assert.assertEquals("s1", result.get("$.items[0].sku"));
+        Assert.assertTrue(invalid.containsKey("$.a"));
+        Assert.assertNull(invalid.get("$.a"));
+    }
+}
@@ -0,0 +1,48 @@
+package io.github.sunning.fileutil;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class JsonStreamMaskerTest {
+
+    @Test
+    public void testEncryptJsonStreaming() {
+        // Setup
+        final String json = "{\"name\":\"张三丰\",\"amount\":12345678901234567.01,\"phone\":13812345678,"
+                + "\"cards\":[{\"number\":\"6222020000001234\",\"bank\":\"ICBC\"},[{\"number\":\"6222020000005678\"}],\"x\"],"
+                + "\"address\":{\"city\":\"北京\",\"detail\":{\"room\":\"1-101\"}},\"other\":{\"name\":\"不脱敏\"}}";
+        final List<String> paths = Arrays.asList("$.name", "$.phone", "$.cards.number", "$.address.detail",
+                "$.missing.key", "value");
+
+        // Run the test
+        final String result = FastJsonUtil.encryptJsonStreaming(json, paths);
+
+        // Verify the results：与构建JSONObject的实现结果一致，数字按原文保留
+        Assert.assertEquals(JSON.parseObject(FastJsonUtil.encryptJson(json, paths)), JSON.parseObject(result));
+        Assert.assertTrue(result.startsWith("{\"name\":\"**丰\",\"amount\":12345678901234567.01,"));
+        Assert.assertTrue(result.contains("\"other\":{\"name\":\"不脱敏\"}"));
+    }
+
+    @Test
+    public void testEncryptJsonStreaming_NoPath() {
+        // Setup
+        final String json = "{\"a\":[1,2.50,true,null,{\"b\":\"c\"}],\"d\":null}";
+
+        // Run the test
+        final String result = FastJsonUtil.encryptJsonStreaming(json, Collections.singletonList("$.none"));
+
+        // Verify the results
+        Assert.assertEquals(json, result);
+    }
+
+    @Test(expected = JSONException.class)
+    public void testEncryptJsonStreaming_Invalid() {
+        FastJsonUtil.encryptJsonStreaming("{\"a\":", Collections.singletonList("$.a"));
+    }
+}
@@ -0,0 +1,47 @@
+package io.github.sunning.fileutil;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONException;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * isJSON的性能对比：fastjson完整解析与JsonValidator单次扫描
+ * 直接运行main方法，分别测量合法和非法（末尾被截断）的json
+ *
+ **/
+
+public class JsonValidatorBenchmark {
+
+    private static final int ITERATIONS = 20_000;
+
+    public static void main(String[] args) {
+        StringBuilder builder = new StringBuilder("{\"code\":0,\"message\":\"成功\",\"data\":[");
+        for (int i = 0; i < 200; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append("{\"id\":").append(i).append(",\"name\":\"用户").append(i)
+                    .append("\",\"score\":").append(i * 1.5).append(",\"tags\":[\"a\",\"b\"],\"vip\":").append(i % 2 == 0).append('}');
+        }
+        String valid = builder.append("]}").toString();
+        String invalid = valid.substring(0, valid.length() - 2);
+        byte[] validBytes = valid.getBytes(StandardCharsets.UTF_8);
+
+        System.out.println("payload: " + valid.length() + " chars");
+        BenchmarkRunner.run("fastjson   valid  ", ITERATIONS, () -> parse(valid));
+        BenchmarkRunner.run("validator  valid  ", ITERATIONS, () -> JsonValidator.LENIENT.validate(valid));
+        BenchmarkRunner.run("validator  bytes  ", ITERATIONS, () -> JsonValidator.LENIENT.validate(validBytes, 0, validBytes.length));
+        BenchmarkRunner.run("fastjson   invalid", ITERATIONS, () -> parse(invalid));
+        BenchmarkRunner.run("validator  invalid", ITERATIONS, () -> JsonValidator.LENIENT.validate(invalid));
+    }
+
+    private static boolean parse(String json) {
+        try {
+            JSON.parse(json);
+            return true;
+        } catch (JSONException e) {
+            return false;
+        }
+    }
+}
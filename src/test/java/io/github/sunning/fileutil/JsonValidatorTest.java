@@ -0,0 +1,79 @@
+package io.github.sunning.fileutil;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+public class JsonValidatorTest {
+
+    @Test
+    public void testValidate() {
+        final String[] valid = {"{}", "[]", " {\"a\":[1,-2.5e+3,true,false,null,{\"b\":\"\\u4e2d\\n\"}]} ", "0", "\"中文\""};
+        final String[] invalid = {"", "str", "{\"a\":1,}", "[1 2]", "{\"a\":01}", "{\"a\":1}x", "{\"a\":NaN}", "{\"a\":1.}",
+                "{\"a\":\"\\x41\"}", "{'a':1}", "{a:1}", "{\"a\":\"x\ny\"}", "{\"a\":[}", "{\"a\" 1}", "\"abc"};
+        for (String json : valid) {
+            Assert.assertTrue(json, JsonValidator.isValid(json));
+            Assert.assertTrue(json, JsonValidator.isValid(json.getBytes(StandardCharsets.UTF_8)));
+        }
+        for (String json : invalid) {
+            Assert.assertFalse(json, JsonValidator.isValid(json));
+            Assert.assertFalse(json, JsonValidator.isValid(json.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    @Test
+    public void testValidate_Lenient() {
+        Assert.assertTrue(JsonValidator.LENIENT.validate("{'a':'b\\'c',b_1:[1,2,],}"));
+        Assert.assertTrue(JsonValidator.LENIENT.validate("{\"a\":\"x\ny\"}"));
+        Assert.assertFalse(JsonValidator.LENIENT.validate("[1 2]"));
+        Assert.assertTrue(FastJsonUtil.isJSON("{'a':1}"));
+        Assert.assertFalse(FastJsonUtil.isJSON("{\"a\":"));
+        Assert.assertFalse(FastJsonUtil.isJSON(" "));
+        Assert.assertTrue(FastJsonUtil.isJSON("[\"中文\"]".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testValidate_MaxDepth() {
+        // Setup
+        final String nested = StringUtils.repeat('[', 10) + StringUtils.repeat(']', 10);
+        final String deep = StringUtils.repeat('[', 100_000);
+
+        // Run the test & Verify the results
+        Assert.assertTrue(new JsonValidator(10, false).validate(nested));
+        Assert.assertFalse(new JsonValidator(9, false).validate(nested));
+        Assert.assertFalse(JsonValidator.isValid(deep));
+    }
+
+    @Test
+    public void testValidate_InvalidUtf8() {
+        // Setup：不完整的多字节序列、过长编码、代理区
+        final byte[][] invalid = {
+                {'"', (byte) 0xE4, (byte) 0xB8, '"'},
+                {'"', (byte) 0xC0, (byte) 0xAF, '"'},
+                {'"', (byte) 0xED, (byte) 0xA0, (byte) 0x80, '"'},
+                {'"', (byte) 0xFF, '"'}
+        };
+
+        // Run the test & Verify the results
+        for (byte[] bytes : invalid) {
+            Assert.assertFalse(JsonValidator.isValid(bytes));
+        }
+        Assert.assertTrue(JsonValidator.isValid("\"\uD83D\uDE00\"".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testValidate_Bom() {
+        // Setup
+        final String json = "\uFEFF{\"a\":1}";
+        final byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+
+        // Run the test & Verify the results：字符和字节的BOM处理一致
+        Assert.assertTrue(FastJsonUtil.isJSON(json));
+        Assert.assertTrue(FastJsonUtil.isJSON(bytes));
+        Assert.assertTrue(JsonValidator.STRICT.validate(bytes, 0, bytes.length));
+        Assert.assertFalse(JsonValidator.isValid(new byte[]{(byte) 0xEF, (byte) 0xBB}));
+        Assert.assertFalse(JsonValidator.isValid(new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF}));
+    }
+}
@@ -0,0 +1,91 @@
+package io.github.sunning.fileutil;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.GZIPOutputStream;
+
+public class ParallelCsvReaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File createCsv() throws Exception {
+        StringBuilder sb = new StringBuilder("id,name,remark\n");
+        for (int i = 0; i < 500; i++) {
+            sb.append(i).append(",name").append(i).append(",\"line1\nline2, \"\"quoted\"\"\"\r\n");
+        }
+        File file = folder.newFile("test.csv");
+        Files.write(file.toPath(), sb.toString().getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    public void testReadOrdered() throws Exception {
+        // Setup
+        final File file = createCsv();
+        final List<String[]> expected = CsvUtil.read(file.getPath(), false);
+
+        // Run the test
+        final List<String[]> result = new ParallelCsvReader(StandardCharsets.UTF_8, 100, ForkJoinPool.commonPool())
+                .read(file.getPath(), false, null);
+
+        // Verify the results
+        Assert.assertEquals(500, result.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertArrayEquals(expected.get(i), result.get(i));
+        }
+        Assert.assertEquals("line1\nline2, \"quoted\"", result.get(0)[2]);
+    }
+
+    @Test
+    public void testReadUnordered() throws Exception {
+        // Setup
+        final File file = createCsv();
+        final ConcurrentLinkedQueue<String[]> result = new ConcurrentLinkedQueue<>();
+
+        // Run the test
+        new ParallelCsvReader(StandardCharsets.UTF_8, 64, new ForkJoinPool(4))
+                .read(file.getPath(), true, new int[]{1}, false, result::add);
+
+        // Verify the results
+        Assert.assertEquals(501, result.size());
+        Assert.assertTrue(result.stream().allMatch(row -> row.length == 1 && row[0].startsWith("name")));
+    }
+
+    @Test
+    public void testReadGzip() throws Exception {
+        // Setup
+        final File file = createCsv();
+        final File gzip = new File(folder.getRoot(), "test.csv.gz");
+        try (OutputStream out = new GZIPOutputStream(new FileOutputStream(gzip))) {
+            Files.copy(file.toPath(), out);
+        }
+
+        // Run the test
+        final List<String[]> result = new ParallelCsvReader(StandardCharsets.UTF_8, 100, ForkJoinPool.commonPool())
+                .read(gzip.getPath(), false, null);
+
+        // Verify the results：gzip文件顺序读取，结果与原文件一致
+        final List<String[]> expected = CsvUtil.read(file.getPath(), false);
+        Assert.assertEquals(500, result.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertArrayEquals(expected.get(i), result.get(i));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupportedCharset() {
+        new ParallelCsvReader(StandardCharsets.UTF_16, ParallelCsvReader.DEFAULT_CHUNK_SIZE, ForkJoinPool.commonPool());
+    }
+}